@@ -28,7 +28,7 @@ public class CorsConfig {
     cfg.setAllowedHeaders(List.of("*"));
 
     // Expose anything you return (e.g., Authorization, Location)
-    cfg.setExposedHeaders(List.of("Authorization", "Location"));
+    cfg.setExposedHeaders(List.of("Authorization", "Location", "ETag", "Idempotent-Replayed"));
 
     // You are using cookies/Authorization from the browser
     cfg.setAllowCredentials(true);
@@ -1,49 +1,79 @@
 package com.ekrishihub.backend.config;
 
-import com.ekrishihub.backend.service.CustomUserDetailsService;
+import com.ekrishihub.backend.service.UserIdentityCache;
 import com.ekrishihub.backend.util.JwtUtil;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
-import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.List;
 
+/**
+ * Authenticates bearer tokens from their signed claims.
+ *
+ * The token is verified once and the principal (id, email, role, enabled) is
+ * built from it, so a request does not query the users table. With
+ * {@code app.jwt.recheck} on, the claims are also held against
+ * {@link UserIdentityCache} (re-read at most once per its TTL) and a token
+ * whose user is gone, or whose id or role no longer match, is ignored; off
+ * trusts the token until it expires. Tokens issued before the id claim
+ * existed are always checked.
+ */
 @Component
 public class JwtAuthFilter extends OncePerRequestFilter {
 
-    @Autowired private JwtUtil jwtUtil;
-    @Autowired private CustomUserDetailsService userDetailsService;
+    private final JwtUtil jwtUtil;
+    private final UserIdentityCache userIdentities;
+    private final boolean recheck;
+
+    public JwtAuthFilter(
+            JwtUtil jwtUtil,
+            UserIdentityCache userIdentities,
+            @Value("${app.jwt.recheck:true}") boolean recheck
+    ) {
+        this.jwtUtil = jwtUtil;
+        this.userIdentities = userIdentities;
+        this.recheck = recheck;
+    }
 
     @Override
     protected void doFilterInternal(HttpServletRequest request,
                                     HttpServletResponse response,
                                     FilterChain filterChain) throws ServletException, IOException {
         String header = request.getHeader("Authorization");
-        String token = null;
-        String email = null;
-        if (header != null && header.startsWith("Bearer ")) {
-            token = header.substring(7);
-            try {
-                email = jwtUtil.getEmailFromToken(token);
-            } catch (Exception e) {
-                // invalid token
+        if (header != null && header.startsWith("Bearer ")
+                && SecurityContextHolder.getContext().getAuthentication() == null) {
+            JwtUtil.TokenClaims claims = jwtUtil.parse(header.substring(7));
+            JwtPrincipal principal = claims == null ? null : principalFor(claims);
+            if (principal != null) {
+                UsernamePasswordAuthenticationToken auth = new UsernamePasswordAuthenticationToken(
+                        principal, null, List.of(new SimpleGrantedAuthority("ROLE_" + principal.role()))
+                );
+                SecurityContextHolder.getContext().setAuthentication(auth);
             }
         }
+        filterChain.doFilter(request, response);
+    }
 
-        if (email != null && SecurityContextHolder.getContext().getAuthentication() == null && jwtUtil.validateToken(token)) {
-            UserDetails userDetails = userDetailsService.loadUserByUsername(email);
-            UsernamePasswordAuthenticationToken auth = new UsernamePasswordAuthenticationToken(
-                    userDetails, null, userDetails.getAuthorities()
-            );
-            SecurityContextHolder.getContext().setAuthentication(auth);
+    /** Principal for a verified token, or null when the user no longer matches it. */
+    private JwtPrincipal principalFor(JwtUtil.TokenClaims claims) {
+        if (claims.userId() != null && claims.role() != null && !recheck) {
+            return new JwtPrincipal(claims.userId(), claims.email(), claims.role(),
+                    Boolean.TRUE.equals(claims.enabled()));
         }
-        filterChain.doFilter(request, response);
+
+        UserIdentityCache.Identity user = userIdentities.find(claims.email()).orElse(null);
+        if (user == null) return null;
+        if (claims.userId() != null && !claims.userId().equals(user.id())) return null;
+        if (claims.role() != null && !claims.role().equalsIgnoreCase(user.role())) return null;
+        return new JwtPrincipal(user.id(), user.email(), user.role(), user.enabled());
     }
 }
@@ -0,0 +1,15 @@
+package com.ekrishihub.backend.config;
+
+import java.security.Principal;
+
+/**
+ * The authenticated user as stated by a verified token. {@code getName()} is
+ * the email, so {@code Authentication.getName()} keeps returning it.
+ */
+public record JwtPrincipal(Long id, String email, String role, boolean enabled) implements Principal {
+
+    @Override
+    public String getName() {
+        return email;
+    }
+}
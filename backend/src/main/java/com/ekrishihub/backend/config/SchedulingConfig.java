@@ -0,0 +1,10 @@
+package com.ekrishihub.backend.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/** Enables {@code @Scheduled} background jobs (rollup repair, etc.). */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
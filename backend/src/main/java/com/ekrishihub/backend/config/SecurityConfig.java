@@ -2,6 +2,7 @@ package com.ekrishihub.backend.config;
 
 import com.ekrishihub.backend.service.CustomUserDetailsService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -26,6 +27,12 @@ public class SecurityConfig {
     @Autowired private JwtAuthFilter jwtAuthFilter;
     @Autowired private CustomUserDetailsService userDetailsService;
 
+    @Value("${app.auth.bcrypt-strength:10}")
+    private int bcryptStrength;
+
+    @Value("${app.auth.rehash-on-login:true}")
+    private boolean rehashOnLogin;
+
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
         http
@@ -74,6 +81,8 @@ public class SecurityConfig {
 
                 // Public endpoints (if desired)
                 .requestMatchers("/api/weather/**").permitAll()
+                // Razorpay webhook: no JWT, verified by its HMAC signature instead
+                .requestMatchers(HttpMethod.POST, "/api/payment/webhook").permitAll()
                 // e.g. if you have public product listing:
                 // .requestMatchers("/api/products/public/**").permitAll()
 
@@ -99,6 +108,10 @@ public class SecurityConfig {
         DaoAuthenticationProvider p = new DaoAuthenticationProvider();
         p.setUserDetailsService(userDetailsService);
         p.setPasswordEncoder(passwordEncoder()); // must match encoder used at registration
+        if (rehashOnLogin) {
+            // hashes weaker than bcrypt-strength are re-encoded with the password just checked
+            p.setUserDetailsPasswordService(userDetailsService);
+        }
         return p;
     }
 
@@ -109,7 +122,7 @@ public class SecurityConfig {
 
     @Bean
     public PasswordEncoder passwordEncoder() {
-        // cost=10 is a good balance; keep it consistent across the app
-        return new BCryptPasswordEncoder(10);
+        // cost=10 is a good balance; raising it upgrades existing hashes as users log in
+        return new BCryptPasswordEncoder(bcryptStrength);
     }
 }
@@ -6,7 +6,9 @@ import com.ekrishihub.backend.entity.AppUser;
 import com.ekrishihub.backend.repository.UserRepository;
 import com.ekrishihub.backend.service.AuthService;
 import com.ekrishihub.backend.service.OtpService;
+import com.ekrishihub.backend.service.PasswordCheckPool;
 import com.ekrishihub.backend.service.TurnstileService;
+import com.ekrishihub.backend.service.UserIdentityCache;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.Email;
@@ -34,19 +36,25 @@ public class AuthController {
     private final UserRepository userRepo;
     private final PasswordEncoder encoder;
     private final OtpService otpService;
+    private final UserIdentityCache userIdentities;
+    private final PasswordCheckPool passwordChecks;
 
     public AuthController(
             AuthService authService,
             TurnstileService turnstile,
             UserRepository userRepo,
             PasswordEncoder encoder,
-            OtpService otpService
+            OtpService otpService,
+            UserIdentityCache userIdentities,
+            PasswordCheckPool passwordChecks
     ) {
         this.authService = authService;
         this.turnstile = turnstile;
         this.userRepo = userRepo;
         this.encoder = encoder;
         this.otpService = otpService;
+        this.userIdentities = userIdentities;
+        this.passwordChecks = passwordChecks;
     }
 
     /* ===========================================================
@@ -152,11 +160,12 @@ public class AuthController {
             AppUser u = new AppUser();
             u.setEmail(email);
             u.setName(req.name().trim());
-            u.setPassword(encoder.encode(req.password()));
+            u.setPassword(passwordChecks.run(() -> encoder.encode(req.password())));
             u.setRole(req.role().toUpperCase());    // ← String role, no enum
             u.setEnabled(false);
             u.setEmailVerified(false);
             userRepo.save(u);
+            userIdentities.invalidate(email);
         }
 
         otpService.sendOtp(email); // handles resend cooldown internally
@@ -172,6 +181,7 @@ public class AuthController {
             return ResponseEntity.badRequest().body(Map.of("error", "Invalid or expired OTP"));
         }
         int updated = userRepo.activateByEmail(email);
+        userIdentities.invalidate(email);
         if (updated == 0) {
             return ResponseEntity.badRequest().body(Map.of("error", "User not found"));
         }
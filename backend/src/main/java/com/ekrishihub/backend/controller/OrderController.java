@@ -1,18 +1,23 @@
 // src/main/java/com/ekrishihub/backend/controller/OrderController.java
 package com.ekrishihub.backend.controller;
 
+import com.ekrishihub.backend.dto.CheckoutRequest;
+import com.ekrishihub.backend.dto.FarmerSalesResponse;
 import com.ekrishihub.backend.dto.OrderRequest;
 import com.ekrishihub.backend.dto.OrderResponse;
 import com.ekrishihub.backend.dto.PaymentCreateRequest;
-import com.ekrishihub.backend.dto.PaymentCreateResponse;
+import com.ekrishihub.backend.service.IdempotencyService;
 import com.ekrishihub.backend.service.OrderService;
+import com.ekrishihub.backend.service.SalesRollupService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
 import java.util.List;
 
 @RestController
@@ -22,29 +27,69 @@ import java.util.List;
 public class OrderController {
 
   private final OrderService orderService;
+  private final SalesRollupService salesRollupService;
+  private final IdempotencyService idempotencyService;
 
   /* ============================ CUSTOMER ============================ */
 
-  /** Create a new order for the logged-in customer. */
+  /**
+   * Create a new order for the logged-in customer. With an {@code Idempotency-Key}
+   * header a retried request returns the first response instead of a second order.
+   */
   @PostMapping("/customer/orders")
-  public ResponseEntity<OrderResponse> placeOrderForCustomer(
+  public ResponseEntity<?> placeOrderForCustomer(
       @Valid @RequestBody OrderRequest req,
+      @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
       Authentication auth
   ) {
     if (auth == null || auth.getName() == null) {
       return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
     }
-    OrderResponse created = orderService.placeOrderForCustomerEmail(auth.getName(), req);
-    return ResponseEntity.status(HttpStatus.CREATED).body(created);
+    return idempotencyService.executeInTransaction("POST /customer/orders", auth.getName(), idempotencyKey,
+        req, HttpStatus.CREATED, () -> orderService.placeOrderForCustomerEmail(auth.getName(), req));
   }
 
-  /** List all orders for the logged-in customer. */
+  /**
+   * Place one order for everything in the logged-in customer's cart, then empty the cart.
+   * Honors {@code Idempotency-Key} like order placement.
+   */
+  @PostMapping("/customer/checkout")
+  public ResponseEntity<?> checkout(
+      @Valid @RequestBody CheckoutRequest req,
+      @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
+      Authentication auth
+  ) {
+    if (auth == null || auth.getName() == null) {
+      return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+    }
+    return idempotencyService.executeInTransaction("POST /customer/checkout", auth.getName(), idempotencyKey,
+        req, HttpStatus.CREATED, () -> orderService.checkoutForCustomerEmail(auth.getName(), req));
+  }
+
+  /**
+   * Orders of the logged-in customer. Without params: the full list (legacy).
+   * With any of cursor/limit/paymentStatus/orderStatus/from/to: a keyset page
+   * { items, nextCursor }, newest first.
+   */
   @GetMapping("/customer/orders")
-  public ResponseEntity<List<OrderResponse>> myOrders(Authentication auth) {
+  public ResponseEntity<?> myOrders(
+      @RequestParam(required = false) String cursor,
+      @RequestParam(required = false) Integer limit,
+      @RequestParam(required = false) String paymentStatus,
+      @RequestParam(required = false) String orderStatus,
+      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+      Authentication auth
+  ) {
     if (auth == null || auth.getName() == null) {
       return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
     }
-    return ResponseEntity.ok(orderService.listOrdersForCustomerEmail(auth.getName()));
+    if (cursor == null && limit == null && paymentStatus == null && orderStatus == null
+        && from == null && to == null) {
+      return ResponseEntity.ok(orderService.listOrdersForCustomerEmail(auth.getName()));
+    }
+    return ResponseEntity.ok(orderService.pageOrdersForCustomerEmail(
+        auth.getName(), cursor, limit, paymentStatus, orderStatus, from, to));
   }
 
   /**
@@ -83,53 +128,84 @@ public class OrderController {
 
   /* ============================= FARMER ============================= */
 
-  /** List orders for products owned by the logged-in farmer. */
+  /**
+   * Orders for products owned by the logged-in farmer, newest first.
+   * Without params: the full list (legacy). With any of cursor/limit/paymentStatus/
+   * orderStatus/from/to: a keyset page { items, nextCursor }.
+   */
   @GetMapping("/farmer/orders")
-  public ResponseEntity<List<OrderResponse>> farmerOrders(Authentication auth) {
+  public ResponseEntity<?> farmerOrders(
+      @RequestParam(required = false) String cursor,
+      @RequestParam(required = false) Integer limit,
+      @RequestParam(required = false) String paymentStatus,
+      @RequestParam(required = false) String orderStatus,
+      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+      Authentication auth
+  ) {
+    if (auth == null || auth.getName() == null) {
+      return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+    }
+    if (cursor == null && limit == null && paymentStatus == null && orderStatus == null
+        && from == null && to == null) {
+      return ResponseEntity.ok(orderService.listOrdersForFarmerEmail(auth.getName()));
+    }
+    return ResponseEntity.ok(orderService.pageOrdersForFarmerEmail(
+        auth.getName(), cursor, limit, paymentStatus, orderStatus, from, to));
+  }
+
+  /**
+   * Revenue dashboard for the logged-in farmer, read from the daily rollups:
+   * paid vs pending totals, a per-day series and per-product units/revenue.
+   * {@code from}/{@code to} are inclusive ISO dates (default: last 30 days).
+   */
+  @GetMapping("/farmer/sales")
+  public ResponseEntity<FarmerSalesResponse> farmerSales(
+      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+      Authentication auth
+  ) {
     if (auth == null || auth.getName() == null) {
       return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
     }
-    return ResponseEntity.ok(orderService.listOrdersForFarmerEmail(auth.getName()));
+    return ResponseEntity.ok(salesRollupService.salesForFarmerEmail(auth.getName(), from, to));
   }
 
   /* ============================= PAYMENT ============================ */
 
-  /** Create a Razorpay order for a single local order. */
+  /** Create a Razorpay order for a single local order. Honors {@code Idempotency-Key}. */
   @PostMapping("/orders/payment/create")
-  public ResponseEntity<PaymentCreateResponse> createPaymentOrder(
+  public ResponseEntity<?> createPaymentOrder(
       @Valid @RequestBody PaymentCreateRequest req,
+      @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
       Authentication auth
   ) {
     if (auth == null || auth.getName() == null) {
       return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
     }
-    return ResponseEntity.ok(orderService.createPaymentForOrder(req, auth));
-  }
-
-  /** Update payment status for a single order (optional/manual). */
-  @PostMapping("/orders/payment/update")
-  public ResponseEntity<String> updatePaymentStatus(
-      @RequestParam Long orderId,
-      @RequestParam String paymentId,
-      @RequestParam String status
-  ) {
-    orderService.updatePaymentStatus(orderId, paymentId, status);
-    return ResponseEntity.ok("Payment status updated");
+    return idempotencyService.execute("POST /orders/payment/create", auth.getName(), idempotencyKey, req,
+        HttpStatus.OK, () -> orderService.createPaymentForOrder(req, auth));
   }
 
   /* -------- Bundle (one Pay Now for multiple orders) -------- */
 
-  /** Create one Razorpay order for multiple local orders (sum total). */
+  /** Create one Razorpay order for multiple local orders (sum total). Honors {@code Idempotency-Key}. */
   @PostMapping("/orders/payment/create-bundle")
-  public ResponseEntity<PaymentCreateResponse> createPaymentOrderBundle(
-      @Valid @RequestBody PaymentCreateRequest req, Authentication auth) {
+  public ResponseEntity<?> createPaymentOrderBundle(
+      @Valid @RequestBody PaymentCreateRequest req,
+      @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
+      Authentication auth) {
     if (auth == null || auth.getName() == null) {
       return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
     }
-    return ResponseEntity.ok(orderService.createPaymentForOrders(req, auth));
+    return idempotencyService.execute("POST /orders/payment/create-bundle", auth.getName(), idempotencyKey, req,
+        HttpStatus.OK, () -> orderService.createPaymentForOrders(req, auth));
   }
 
-  /** Update payment status for multiple orders at once. */
+  /**
+   * Checkout finished in the browser: settle the caller's orders from what the
+   * gateway reports. The status in the body is ignored.
+   */
   @PostMapping("/orders/payment/update-bundle")
   public ResponseEntity<Void> updatePaymentStatusBundle(
       @Valid @RequestBody PaymentCreateRequest req, Authentication auth) {
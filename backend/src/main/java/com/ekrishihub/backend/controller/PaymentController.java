@@ -1,38 +1,61 @@
 package com.ekrishihub.backend.controller;
 
-import com.razorpay.Order;
-import com.razorpay.RazorpayClient;
+import com.ekrishihub.backend.service.PaymentGateway;
+import com.ekrishihub.backend.service.PaymentWebhookService;
+import lombok.RequiredArgsConstructor;
 import org.json.JSONObject;
-import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.math.BigDecimal;
 import java.math.BigInteger;
+import java.math.RoundingMode;
 import java.security.SecureRandom;
 
 @RestController
 @RequestMapping("/api/payment")
+@RequiredArgsConstructor
 public class PaymentController {
 
-    @Value("${razorpay.key_id}")
-    private String razorpayKeyId;
+    private static final SecureRandom RANDOM = new SecureRandom();
 
-    @Value("${razorpay.key_secret}")
-    private String razorpayKeySecret;
+    private final PaymentGateway paymentGateway;
+    private final PaymentWebhookService webhookService;
 
     @PostMapping("/create-order")
-    public String createOrder(@RequestParam double amount) throws Exception {
-        RazorpayClient client = new RazorpayClient(razorpayKeyId, razorpayKeySecret);
-
-        JSONObject orderRequest = new JSONObject();
-        orderRequest.put("amount", (int)(amount * 100)); // amount in paise
-        orderRequest.put("currency", "INR");
-        orderRequest.put("receipt", generateReceiptId());
+    public String createOrder(@RequestParam double amount) {
+        long paise = BigDecimal.valueOf(amount).multiply(BigDecimal.valueOf(100))
+                .setScale(0, RoundingMode.HALF_UP)
+                .longValueExact(); // amount in paise
+
+        PaymentGateway.GatewayOrder order = paymentGateway.createOrder(paise, "INR", generateReceiptId());
+
+        JSONObject body = new JSONObject();
+        body.put("id", order.id());
+        body.put("amount", order.amountPaise());
+        body.put("currency", order.currency());
+        body.put("receipt", order.receipt());
+        body.put("status", order.status());
+        return body.toString();
+    }
 
-        Order order = client.orders.create(orderRequest);
-        return order.toString();
+    /**
+     * Razorpay webhook (public; authenticated by X-Razorpay-Signature over the raw body).
+     * Acknowledges once the event is stored; 503 (or a failed store) asks Razorpay to redeliver later.
+     */
+    @PostMapping("/webhook")
+    public ResponseEntity<Void> webhook(
+            @RequestBody byte[] body,
+            @RequestHeader(value = "X-Razorpay-Signature", required = false) String signature) {
+        return switch (webhookService.receive(body, signature)) {
+            case ACCEPTED, IGNORED -> ResponseEntity.ok().build();
+            case INVALID_SIGNATURE -> ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+            case NOT_CONFIGURED -> ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        };
     }
 
     private String generateReceiptId() {
-        return new BigInteger(50, new SecureRandom()).toString(32);
+        return new BigInteger(50, RANDOM).toString(32);
     }
 }
@@ -3,16 +3,25 @@ package com.ekrishihub.backend.controller;
 
 import com.ekrishihub.backend.dto.ProductRequest;
 import com.ekrishihub.backend.dto.ProductResponse;
-import com.ekrishihub.backend.entity.Product;
-import com.ekrishihub.backend.repository.ProductRepository;
+import com.ekrishihub.backend.service.CatalogVersion;
+import com.ekrishihub.backend.service.ProductExportService;
 import com.ekrishihub.backend.service.ProductService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
 
-import java.util.List;
+import java.io.IOException;
 import java.util.Map;
+import java.util.function.Supplier;
 
 @RestController
 @RequestMapping("/api")
@@ -20,33 +29,90 @@ import java.util.Map;
 public class ProductController {
 
   private final ProductService productService;
-  private final ProductRepository productRepository;
+  private final CatalogVersion catalogVersion;
+  private final ProductExportService exportService;
 
   /* -------------------- Public list: GET /api/products -------------------- */
+  /**
+   * Without paging params this is the legacy full array. With any of
+   * cursor/after/limit/sort it returns a keyset page: { items, nextCursor }.
+   */
   @GetMapping("/products")
-  public ResponseEntity<List<ProductResponse>> getAll() {
-    return ResponseEntity.ok(productService.getAll());
+  public ResponseEntity<?> getAll(
+      @RequestParam(required = false) String cursor,
+      @RequestParam(required = false) Long after,
+      @RequestParam(required = false) Integer limit,
+      @RequestParam(required = false) String sort,
+      WebRequest request
+  ) {
+    if (cursor == null && after == null && limit == null && sort == null) {
+      return conditional(request, catalogVersion.etag(), CacheControl.noCache(), productService::getAll);
+    }
+    return conditional(request, catalogVersion.etag(), CacheControl.noCache(),
+        () -> productService.getPage(cursor, after, limit, sort));
   }
 
   /* --------------- Farmer list (mine): GET /api/farmer/products ----------- */
   @GetMapping("/farmer/products")
-  public ResponseEntity<?> getMyProducts(Authentication auth) {
+  public ResponseEntity<?> getMyProducts(Authentication auth, WebRequest request) {
     if (auth == null || auth.getName() == null) {
       return ResponseEntity.status(401).body(Map.of("message", "Unauthorized"));
     }
     String email = auth.getName();
-    return ResponseEntity.ok(productService.getByOwnerEmail(email));
+    return conditional(request, catalogVersion.etagFor(email), CacheControl.noCache().cachePrivate(),
+        () -> productService.getByOwnerEmail(email));
   }
 
   /* ---------------------- Search: GET /api/products/search ----------------- */
   @GetMapping("/products/search")
-  public ResponseEntity<List<Product>> searchProducts(
+  public ResponseEntity<?> searchProducts(
       @RequestParam(required = false) String name,
+      @RequestParam(required = false) String q,
       @RequestParam(required = false) String category,
       @RequestParam(required = false) Double minPrice,
-      @RequestParam(required = false) Double maxPrice
+      @RequestParam(required = false) Double maxPrice,
+      @RequestParam(defaultValue = "false") boolean facets,
+      @RequestParam(required = false) Integer buckets,
+      @RequestParam(defaultValue = "false") boolean fuzzy,
+      WebRequest request
   ) {
-    return ResponseEntity.ok(productRepository.searchProducts(name, category, minPrice, maxPrice));
+    if (facets) {
+      // { items, facets: { categories, priceHistogram, inStock, outOfStock } }
+      return conditional(request, catalogVersion.etag(), CacheControl.noCache(),
+          () -> productService.searchWithFacets(name, q, category, minPrice, maxPrice, buckets, fuzzy));
+    }
+    return conditional(request, catalogVersion.etag(), CacheControl.noCache(),
+        () -> productService.search(name, q, category, minPrice, maxPrice, fuzzy));
+  }
+
+  /* ------------- Autocomplete: GET /api/products/suggest?prefix= ----------- */
+  /** [{ text, type: "product"|"category", listings, stock }], most stock first. */
+  @GetMapping("/products/suggest")
+  public ResponseEntity<?> suggest(@RequestParam(required = false) String prefix,
+                                   @RequestParam(required = false) Integer limit,
+                                   WebRequest request) {
+    return conditional(request, catalogVersion.etag(), CacheControl.noCache(),
+        () -> productService.suggest(prefix, limit));
+  }
+
+  /* --------------- Export: GET /api/products/export?format= --------------- */
+  /** Streams the whole catalog as NDJSON (default) or CSV for partner sync. */
+  @GetMapping("/products/export")
+  public void exportProducts(@RequestParam(defaultValue = "ndjson") String format,
+                             HttpServletResponse response) throws IOException {
+    switch (format.trim().toLowerCase()) {
+      case "ndjson", "jsonl" -> {
+        response.setContentType("application/x-ndjson");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"products.ndjson\"");
+        exportService.writeNdjson(response.getOutputStream());
+      }
+      case "csv" -> {
+        response.setContentType("text/csv;charset=UTF-8");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"products.csv\"");
+        exportService.writeCsv(response.getOutputStream());
+      }
+      default -> throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid format (use ndjson or csv)");
+    }
   }
 
   /* ---------------- Create (mine): POST /api/farmer/products -------------- */
@@ -59,6 +125,22 @@ public class ProductController {
     return ResponseEntity.ok(productService.addProductForOwnerEmail(email, req));
   }
 
+  /* --------- Bulk create (mine): POST /api/farmer/products/import --------- */
+  /**
+   * Streams a CSV (text/csv, header row required) or JSON-lines
+   * (application/x-ndjson) upload into the catalog and returns a per-row report.
+   */
+  @PostMapping(value = "/farmer/products/import", consumes = {"text/csv", "application/x-ndjson", "application/jsonl"})
+  public ResponseEntity<?> importMyProducts(HttpServletRequest request, Authentication auth) throws IOException {
+    if (auth == null || auth.getName() == null) {
+      return ResponseEntity.status(401).body(Map.of("message", "Unauthorized"));
+    }
+    MediaType type = MediaType.parseMediaType(request.getContentType());
+    boolean csv = type.isCompatibleWith(MediaType.parseMediaType("text/csv"));
+    if (request.getCharacterEncoding() == null) request.setCharacterEncoding("UTF-8");
+    return ResponseEntity.ok(productService.importForOwnerEmail(auth.getName(), request.getReader(), csv));
+  }
+
   /* ----------- (Optional) Public create: POST /api/products --------------- */
   @PostMapping("/products")
   public ResponseEntity<ProductResponse> addProductOpen(@RequestBody ProductRequest req) {
@@ -104,4 +186,19 @@ public class ProductController {
     productService.deleteForOwnerEmail(email, id);
     return ResponseEntity.noContent().build();
   }
+
+  /* ------------------------------- Helpers ------------------------------- */
+
+  /**
+   * Answers 304 from the catalog version alone when If-None-Match still matches;
+   * the body supplier (DB/cache read + serialization) only runs on a miss.
+   * Cache-Control is set explicitly so Spring Security's no-store default does
+   * not stop clients from keeping the copy they revalidate.
+   */
+  private ResponseEntity<?> conditional(WebRequest request, String etag, CacheControl cacheControl, Supplier<?> body) {
+    if (request.checkNotModified(etag)) {
+      return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(cacheControl).build();
+    }
+    return ResponseEntity.ok().eTag(etag).cacheControl(cacheControl).body(body.get());
+  }
 }
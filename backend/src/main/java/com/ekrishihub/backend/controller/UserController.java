@@ -2,6 +2,7 @@ package com.ekrishihub.backend.controller;
 
 import com.ekrishihub.backend.entity.AppUser;
 import com.ekrishihub.backend.repository.UserRepository;
+import com.ekrishihub.backend.service.UserIdentityCache;
 import com.ekrishihub.backend.util.JwtUtil;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
@@ -15,6 +16,7 @@ public class UserController {
 
     private final UserRepository userRepository;
     private final JwtUtil jwtUtil;
+    private final UserIdentityCache userIdentities;
 
     // GET profile of logged-in user
     @GetMapping("/me")
@@ -36,6 +38,8 @@ public class UserController {
         user.setName(updatedUser.getName());
         user.setEmail(updatedUser.getEmail());
         userRepository.save(user);
+        userIdentities.invalidate(email);
+        userIdentities.invalidate(user.getEmail());
 
         return ResponseEntity.ok("Profile updated successfully");
     }
@@ -0,0 +1,16 @@
+package com.ekrishihub.backend.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import lombok.*;
+
+/** Checkout of the caller's whole cart; the lines come from the cart itself. */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CheckoutRequest {
+
+    @NotBlank(message = "Delivery address is required")
+    private String address;
+}
@@ -0,0 +1,33 @@
+package com.ekrishihub.backend.dto;
+
+import lombok.*;
+
+import java.util.List;
+
+/**
+ * The orders created from a cart (one per farmer) and the lines they were
+ * built from (prices as charged); each line names its order.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CheckoutResponse {
+    private List<OrderResponse> orders;
+    private List<Line> items;
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class Line {
+        private Long orderId;
+        private Long productId;
+        private String productName;
+        private Integer quantity;
+        private Double price;       // unit price at checkout
+        private Double lineTotal;
+    }
+}
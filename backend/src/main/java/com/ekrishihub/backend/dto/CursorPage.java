@@ -0,0 +1,12 @@
+package com.ekrishihub.backend.dto;
+
+import lombok.*;
+
+import java.util.List;
+
+/** One keyset page; {@code nextCursor} is null on the last page. */
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor
+public class CursorPage<T> {
+    private List<T> items;
+    private String nextCursor;
+}
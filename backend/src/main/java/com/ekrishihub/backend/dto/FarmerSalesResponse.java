@@ -0,0 +1,19 @@
+package com.ekrishihub.backend.dto;
+
+import lombok.*;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/** Farmer revenue dashboard: totals, a daily series and a per-product breakdown. */
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor
+public class FarmerSalesResponse {
+    private LocalDate from;
+    private LocalDate to;                   // inclusive
+    private double paidAmount;
+    private long paidUnits;
+    private double pendingAmount;
+    private long pendingUnits;
+    private List<SalesDay> days;            // only days with activity, ascending
+    private List<ProductSales> products;    // highest paid amount first
+}
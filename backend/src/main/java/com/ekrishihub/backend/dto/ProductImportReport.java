@@ -0,0 +1,21 @@
+package com.ekrishihub.backend.dto;
+
+import lombok.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/** Outcome of a bulk import; only the first errors are listed, the count is exact. */
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor
+public class ProductImportReport {
+    private long received;
+    private long imported;
+    private long failed;
+    private List<RowError> errors = new ArrayList<>();
+
+    @Getter @Setter @NoArgsConstructor @AllArgsConstructor
+    public static class RowError {
+        private long line;          // 1-based line in the uploaded file
+        private String message;
+    }
+}
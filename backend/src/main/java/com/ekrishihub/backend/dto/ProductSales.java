@@ -0,0 +1,16 @@
+package com.ekrishihub.backend.dto;
+
+import lombok.*;
+
+/** One product's sales over the requested range. */
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor
+public class ProductSales {
+    private Long productId;
+    private String productName;
+    private long paidOrders;
+    private long paidUnits;
+    private double paidAmount;
+    private long pendingOrders;
+    private long pendingUnits;
+    private double pendingAmount;
+}
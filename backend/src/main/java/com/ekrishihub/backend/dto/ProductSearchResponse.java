@@ -0,0 +1,11 @@
+package com.ekrishihub.backend.dto;
+
+import lombok.*;
+
+import java.util.List;
+
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor
+public class ProductSearchResponse {
+    private List<ProductResponse> items;
+    private SearchFacets facets;
+}
@@ -0,0 +1,15 @@
+package com.ekrishihub.backend.dto;
+
+import lombok.*;
+
+/** One autocomplete entry: a product name or category with the stock behind it. */
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor
+public class ProductSuggestion {
+    public static final String PRODUCT = "product";
+    public static final String CATEGORY = "category";
+
+    private String text;
+    private String type;        // "product" | "category"
+    private int listings;
+    private long stock;
+}
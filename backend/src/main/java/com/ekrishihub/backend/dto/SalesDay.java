@@ -0,0 +1,17 @@
+package com.ekrishihub.backend.dto;
+
+import lombok.*;
+
+import java.time.LocalDate;
+
+/** One day of a farmer's sales (all products). */
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor
+public class SalesDay {
+    private LocalDate day;
+    private long paidOrders;
+    private long paidUnits;
+    private double paidAmount;
+    private long pendingOrders;
+    private long pendingUnits;
+    private double pendingAmount;
+}
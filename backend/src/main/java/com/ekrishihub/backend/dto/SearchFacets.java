@@ -0,0 +1,22 @@
+package com.ekrishihub.backend.dto;
+
+import lombok.*;
+
+import java.util.List;
+import java.util.Map;
+
+/** Facets for the current search: hits per category, a price histogram and stock split. */
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor
+public class SearchFacets {
+    private Map<String, Long> categories;   // ordered by count, descending
+    private List<PriceBucket> priceHistogram;
+    private long inStock;
+    private long outOfStock;
+
+    @Getter @Setter @NoArgsConstructor @AllArgsConstructor
+    public static class PriceBucket {
+        private double from;                // inclusive
+        private double to;                  // exclusive, except for the last bucket
+        private long count;
+    }
+}
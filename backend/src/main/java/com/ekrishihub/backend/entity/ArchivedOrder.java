@@ -0,0 +1,64 @@
+package com.ekrishihub.backend.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * A settled order moved out of {@code orders} by the archival job. Same
+ * columns and id as the original row, plus when it was moved; nothing writes
+ * to it except the mover.
+ */
+@Entity
+@Table(name = "orders_archive", indexes = {
+        @Index(name = "idx_orders_archive_farmer_created", columnList = "farmer_id, created_at"),
+        @Index(name = "idx_orders_archive_customer_created", columnList = "customer_id, created_at"),
+        @Index(name = "idx_orders_archive_created", columnList = "created_at")      // MAX(created_at) watermark
+})
+@Getter @Setter
+@NoArgsConstructor @AllArgsConstructor
+public class ArchivedOrder {
+
+    @Id
+    private Long id;                        // id it had in orders
+
+    @Column(name = "customer_id", nullable = false)
+    private Long customerId;
+
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    @Column(name = "farmer_id")
+    private Long farmerId;
+
+    @Column(nullable = false)
+    private Integer quantity;
+
+    @Column(length = 512)
+    private String address;
+
+    @Column(name = "total_amount", nullable = false)
+    private Double totalAmount;
+
+    @Column(name = "payment_status")
+    private String paymentStatus;
+
+    @Column(name = "razorpay_order_id")
+    private String razorpayOrderId;
+
+    @Column(name = "razorpay_payment_id")
+    private String razorpayPaymentId;
+
+    @Column(name = "razorpay_signature")
+    private String razorpaySignature;
+
+    @Column(name = "order_status")
+    private String orderStatus;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "archived_at", nullable = false)
+    private LocalDateTime archivedAt;
+}
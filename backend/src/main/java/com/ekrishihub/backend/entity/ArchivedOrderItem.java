@@ -0,0 +1,28 @@
+package com.ekrishihub.backend.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/** A checkout line of an archived order; ids and references kept as plain values. */
+@Entity
+@Table(name = "order_items_archive", indexes = {
+        @Index(name = "idx_order_items_archive_order", columnList = "order_id")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ArchivedOrderItem {
+
+    @Id
+    private Long id;
+
+    @Column(name = "order_id", nullable = false)
+    private Long orderId;
+
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    private Integer quantity;
+    private Double price;
+}
@@ -4,7 +4,7 @@ import jakarta.persistence.*;
 import lombok.Getter; import lombok.Setter;
 import java.time.LocalDateTime;
 
-@Entity @Table(name="email_otps")
+@Entity @Table(name="email_otps", indexes = @Index(name="idx_email_otps_expires", columnList="expires_at"))
 @Getter @Setter
 public class EmailOtp {
   @Id @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -14,7 +14,7 @@ public class EmailOtp {
   private String email;                 // lowercased
 
   @Column(name="otp_hash", nullable=false, length=100)
-  private String otpHash;               // bcrypt hash of OTP
+  private String otpHash;               // HMAC-SHA256 (hex) of email + OTP
 
   @Column(name="expires_at", nullable=false)
   private LocalDateTime expiresAt;
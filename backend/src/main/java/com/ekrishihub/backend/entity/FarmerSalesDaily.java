@@ -0,0 +1,56 @@
+package com.ekrishihub.backend.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDate;
+
+/**
+ * Pre-aggregated sales per farmer, product and order day. Kept current by
+ * deltas from OrderService and rebuilt from {@code orders} by the repair job;
+ * the farmer dashboard reads only this table.
+ *
+ * "Pending" is every order still holding stock and not yet paid; FAILED orders
+ * are not counted at all.
+ */
+@Entity
+@Table(name = "farmer_sales_daily",
+       uniqueConstraints = @UniqueConstraint(name = "uk_sales_farmer_day_product",
+                                             columnNames = {"farmer_id", "sales_date", "product_id"}))
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class FarmerSalesDaily {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "farmer_id", nullable = false)
+    private Long farmerId;
+
+    @Column(name = "sales_date", nullable = false)
+    private LocalDate salesDate;            // day the order was placed
+
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    @Column(name = "paid_orders", nullable = false)
+    private long paidOrders;
+
+    @Column(name = "paid_units", nullable = false)
+    private long paidUnits;
+
+    @Column(name = "paid_amount", nullable = false)
+    private double paidAmount;
+
+    @Column(name = "pending_orders", nullable = false)
+    private long pendingOrders;
+
+    @Column(name = "pending_units", nullable = false)
+    private long pendingUnits;
+
+    @Column(name = "pending_amount", nullable = false)
+    private double pendingAmount;
+}
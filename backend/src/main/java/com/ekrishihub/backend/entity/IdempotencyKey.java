@@ -0,0 +1,42 @@
+package com.ekrishihub.backend.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * One client-supplied {@code Idempotency-Key} and the response it produced.
+ * The id is a hash of (endpoint, user, key) so keys from different users or
+ * endpoints never collide. {@code statusCode} stays null while the first
+ * request is still running; rows are purged once {@code expiresAt} passes.
+ */
+@Entity
+@Table(name = "idempotency_keys",
+       indexes = @Index(name = "idx_idempotency_expires", columnList = "expires_at"))
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class IdempotencyKey {
+
+    @Id
+    @Column(name = "id", length = 64)
+    private String id;
+
+    @Column(name = "request_hash", length = 64, nullable = false)
+    private String requestHash;             // SHA-256 of the request body
+
+    @Column(name = "status_code")
+    private Integer statusCode;             // null = in flight
+
+    @Lob
+    @Column(name = "response_body")
+    private String responseBody;            // JSON as first returned
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+}
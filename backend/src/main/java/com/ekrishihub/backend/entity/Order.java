@@ -7,7 +7,18 @@ import jakarta.persistence.*;
 import lombok.*;
 
 @Entity
-@Table(name = "orders")
+@Table(name = "orders", indexes = {
+        // Farmer order feed: WHERE farmer_id = ? ORDER BY created_at DESC, id DESC
+        @Index(name = "idx_orders_farmer_created", columnList = "farmer_id, created_at"),
+        // Customer history: WHERE customer_id = ? ORDER BY created_at DESC, id DESC
+        @Index(name = "idx_orders_customer_created", columnList = "customer_id, created_at"),
+        // Webhooks / reconciliation: WHERE razorpay_order_id IN (...)
+        @Index(name = "idx_orders_razorpay_order", columnList = "razorpay_order_id"),
+        // Archiving: SELECT MAX(id) FROM orders WHERE created_at < ?
+        @Index(name = "idx_orders_created", columnList = "created_at"),
+        // Payment reconciliation: WHERE payment_status = 'PENDING' AND id > ? ORDER BY id
+        @Index(name = "idx_orders_payment_status", columnList = "payment_status, id")
+})
 @Getter @Setter
 @NoArgsConstructor @AllArgsConstructor
 @Builder
@@ -52,6 +63,9 @@ public class Order {
     @Column(name = "razorpay_signature")
     private String razorpaySignature;
 
+    @Column(name = "payment_started_at")
+    private LocalDateTime paymentStartedAt;  // gateway order attached or last handed out
+
     /* ---- Order lifecycle (optional) ---- */
     @Column(name = "order_status")
     private String orderStatus;            // CREATED / CONFIRMED / CANCELLED
@@ -0,0 +1,63 @@
+package com.ekrishihub.backend.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * One queued email. A row is deleted once the message is handed to SMTP;
+ * {@code nextAttemptAt} is the retry time while PENDING (and the lease of the
+ * worker that claimed it, under {@code claimToken}). After too many failures
+ * the row stays as DEAD for inspection, with its body cleared. Nothing is
+ * sent after {@code expiresAt}, and the row is deleted then whatever its
+ * status (an OTP is useless, and must not linger, once its code has expired).
+ */
+@Entity
+@Table(name = "mail_outbox",
+       indexes = {
+           @Index(name = "idx_mail_outbox_due", columnList = "status, next_attempt_at"),
+           @Index(name = "idx_mail_outbox_claim", columnList = "claim_token"),
+           @Index(name = "idx_mail_outbox_expires", columnList = "expires_at")
+       })
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutboundMail {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "recipient", length = 120, nullable = false)
+    private String recipient;
+
+    @Column(name = "subject", length = 200, nullable = false)
+    private String subject;
+
+    @Lob
+    @Column(name = "body", nullable = false)
+    private String body;
+
+    @Column(name = "status", length = 10, nullable = false)
+    private String status;                  // PENDING | DEAD
+
+    @Column(name = "attempts", nullable = false)
+    private int attempts;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(name = "claim_token", length = 36)
+    private String claimToken;
+
+    @Column(name = "last_error", length = 500)
+    private String lastError;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+}
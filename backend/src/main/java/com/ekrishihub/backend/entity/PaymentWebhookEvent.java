@@ -0,0 +1,53 @@
+package com.ekrishihub.backend.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * A verified gateway event waiting to be applied to its orders. Written
+ * before the webhook is acknowledged and deleted once applied, so an event
+ * survives a crash between the two; {@code nextAttemptAt} is the retry time
+ * (and the lease of the worker that claimed it, under {@code claimToken}).
+ */
+@Entity
+@Table(name = "payment_webhook_inbox",
+       indexes = {
+           @Index(name = "idx_payment_inbox_due", columnList = "next_attempt_at"),
+           @Index(name = "idx_payment_inbox_claim", columnList = "claim_token")
+       })
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaymentWebhookEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "razorpay_order_id", length = 64, nullable = false)
+    private String razorpayOrderId;
+
+    @Column(name = "payment_id", length = 64)
+    private String paymentId;
+
+    @Column(name = "status", length = 10, nullable = false)
+    private String status;                  // PAID
+
+    @Column(name = "attempts", nullable = false)
+    private int attempts;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(name = "claim_token", length = 36)
+    private String claimToken;
+
+    @Column(name = "last_error", length = 500)
+    private String lastError;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
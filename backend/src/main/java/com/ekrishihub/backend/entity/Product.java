@@ -7,7 +7,11 @@ import lombok.*;
 import java.math.BigDecimal;
 
 @Entity
-@Table(name = "products")
+@Table(name = "products", indexes = {
+        // Seek indexes for keyset pagination of the public catalog
+        @Index(name = "idx_products_price_id", columnList = "price, id"),
+        @Index(name = "idx_products_name_id", columnList = "name, id")
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -0,0 +1,23 @@
+package com.ekrishihub.backend.exception;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+/** 429 carrying a {@code Retry-After} header (seconds), which the global handler passes on. */
+public class TooManyRequestsException extends ResponseStatusException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final HttpHeaders headers = new HttpHeaders();
+
+    public TooManyRequestsException(String reason, long retryAfterSeconds) {
+        super(HttpStatus.TOO_MANY_REQUESTS, reason);
+        headers.set(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+    }
+
+    @Override
+    public HttpHeaders getHeaders() {
+        return headers;
+    }
+}
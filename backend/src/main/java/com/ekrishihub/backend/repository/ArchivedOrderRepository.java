@@ -0,0 +1,85 @@
+package com.ekrishihub.backend.repository;
+
+import com.ekrishihub.backend.dto.OrderResponse;
+import com.ekrishihub.backend.entity.ArchivedOrder;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * History reads against {@code orders_archive}: the same projections and
+ * filters as {@link OrderRepository}, so results can be merged with the hot
+ * table's page for page.
+ */
+public interface ArchivedOrderRepository extends JpaRepository<ArchivedOrder, Long> {
+
+    /** As {@link OrderRepository#FARMER_MATCH}, against the archived lines. */
+    String FARMER_MATCH = """
+           (o.farmerId = :farmerId
+            OR (o.farmerId IS NULL AND EXISTS (
+                SELECT 1 FROM ArchivedOrderItem i, Product ip
+                WHERE i.orderId = o.id AND ip.id = i.productId AND ip.ownerId = :farmerId)))
+           """;
+
+    @Query("SELECT " + OrderRepository.AS_RESPONSE + """
+           FROM ArchivedOrder o LEFT JOIN Product p ON p.id = o.productId
+           WHERE o.customerId = :customerId
+           ORDER BY o.createdAt DESC, o.id DESC
+           """)
+    List<OrderResponse> findResponsesByCustomerId(@Param("customerId") Long customerId);
+
+    @Query("SELECT " + OrderRepository.AS_RESPONSE + """
+           FROM ArchivedOrder o LEFT JOIN Product p ON p.id = o.productId
+           WHERE o.customerId = :customerId
+             AND (:paymentStatus IS NULL OR o.paymentStatus = :paymentStatus)
+             AND (:orderStatus IS NULL OR o.orderStatus = :orderStatus)
+             AND (:from IS NULL OR o.createdAt >= :from)
+             AND (:to IS NULL OR o.createdAt < :to)
+             AND (:afterCreatedAt IS NULL
+                  OR o.createdAt < :afterCreatedAt
+                  OR (o.createdAt = :afterCreatedAt AND o.id < :afterId))
+           ORDER BY o.createdAt DESC, o.id DESC
+           """)
+    List<OrderResponse> pageByCustomer(@Param("customerId") Long customerId,
+                                       @Param("paymentStatus") String paymentStatus,
+                                       @Param("orderStatus") String orderStatus,
+                                       @Param("from") LocalDateTime from,
+                                       @Param("to") LocalDateTime to,
+                                       @Param("afterCreatedAt") LocalDateTime afterCreatedAt,
+                                       @Param("afterId") Long afterId,
+                                       Pageable limit);
+
+    @Query("SELECT " + OrderRepository.AS_RESPONSE + """
+           FROM ArchivedOrder o LEFT JOIN Product p ON p.id = o.productId
+           WHERE
+           """ + FARMER_MATCH + """
+           ORDER BY o.createdAt DESC, o.id DESC
+           """)
+    List<OrderResponse> findResponsesByFarmerId(@Param("farmerId") Long farmerId);
+
+    @Query("SELECT " + OrderRepository.AS_RESPONSE + """
+           FROM ArchivedOrder o LEFT JOIN Product p ON p.id = o.productId
+           WHERE
+           """ + FARMER_MATCH + """
+             AND (:paymentStatus IS NULL OR o.paymentStatus = :paymentStatus)
+             AND (:orderStatus IS NULL OR o.orderStatus = :orderStatus)
+             AND (:from IS NULL OR o.createdAt >= :from)
+             AND (:to IS NULL OR o.createdAt < :to)
+             AND (:afterCreatedAt IS NULL
+                  OR o.createdAt < :afterCreatedAt
+                  OR (o.createdAt = :afterCreatedAt AND o.id < :afterId))
+           ORDER BY o.createdAt DESC, o.id DESC
+           """)
+    List<OrderResponse> pageByFarmer(@Param("farmerId") Long farmerId,
+                                     @Param("paymentStatus") String paymentStatus,
+                                     @Param("orderStatus") String orderStatus,
+                                     @Param("from") LocalDateTime from,
+                                     @Param("to") LocalDateTime to,
+                                     @Param("afterCreatedAt") LocalDateTime afterCreatedAt,
+                                     @Param("afterId") Long afterId,
+                                     Pageable limit);
+}
@@ -3,10 +3,21 @@ package com.ekrishihub.backend.repository;
 import com.ekrishihub.backend.entity.CartItem;
 import com.ekrishihub.backend.entity.AppUser;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
 
 public interface CartRepository extends JpaRepository<CartItem, Long> {
     List<CartItem> findByUser(AppUser user);
-    void deleteByUser(AppUser user);
+
+    /** Cart lines with their products in one query (checkout). */
+    @Query("SELECT c FROM CartItem c JOIN FETCH c.product WHERE c.user = :user ORDER BY c.id")
+    List<CartItem> findWithProductsByUser(@Param("user") AppUser user);
+
+    /** One bulk DELETE instead of loading and removing each line. */
+    @Modifying
+    @Query("DELETE FROM CartItem c WHERE c.user = :user")
+    void deleteByUser(@Param("user") AppUser user);
 }
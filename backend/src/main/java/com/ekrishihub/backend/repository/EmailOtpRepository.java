@@ -2,9 +2,53 @@ package com.ekrishihub.backend.repository;
 
 import com.ekrishihub.backend.entity.EmailOtp;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
+/** Durable copy of the OTP store; every write is one statement (emails are stored lower-case). */
 public interface EmailOtpRepository extends JpaRepository<EmailOtp, Long> {
   Optional<EmailOtp> findByEmailIgnoreCase(String email);
-  void deleteByEmailIgnoreCase(String email);
+
+  /** Exact match on the unique email index; callers pass the lower-cased email. */
+  Optional<EmailOtp> findByEmail(String email);
+
+  /** Live codes, reloaded into memory at startup. */
+  List<EmailOtp> findByExpiresAtAfter(LocalDateTime now);
+
+  /** Insert, or replace the code of, the row for {@code email}; attempts restart at 0. */
+  @Modifying
+  @Transactional
+  @Query(value = """
+                 INSERT INTO email_otps (email, otp_hash, expires_at, attempts, last_sent_at)
+                 VALUES (:email, :hash, :expiresAt, 0, :sentAt)
+                 ON DUPLICATE KEY UPDATE otp_hash = VALUES(otp_hash), expires_at = VALUES(expires_at),
+                                         attempts = 0, last_sent_at = VALUES(last_sent_at)
+                 """, nativeQuery = true)
+  int upsert(@Param("email") String email,
+             @Param("hash") String hash,
+             @Param("expiresAt") LocalDateTime expiresAt,
+             @Param("sentAt") LocalDateTime sentAt);
+
+  @Modifying
+  @Transactional
+  @Query("UPDATE EmailOtp o SET o.attempts = :attempts WHERE o.email = :email")
+  int updateAttempts(@Param("email") String email, @Param("attempts") int attempts);
+
+  @Modifying
+  @Transactional
+  @Query("DELETE FROM EmailOtp o WHERE o.email = :email")
+  int deleteByEmail(@Param("email") String email);
+
+  /** Deletes up to {@code limit} expired rows; call until it returns less than {@code limit}. */
+  @Modifying
+  @Transactional
+  @Query(value = "DELETE FROM email_otps WHERE expires_at < :now LIMIT :limit",
+         nativeQuery = true)
+  int deleteExpiredBatch(@Param("now") LocalDateTime now, @Param("limit") int limit);
 }
@@ -0,0 +1,44 @@
+package com.ekrishihub.backend.repository;
+
+import com.ekrishihub.backend.dto.ProductSales;
+import com.ekrishihub.backend.dto.SalesDay;
+import com.ekrishihub.backend.entity.FarmerSalesDaily;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/** Dashboard reads; each touches at most (days x products) rollup rows for one farmer. */
+public interface FarmerSalesDailyRepository extends JpaRepository<FarmerSalesDaily, Long> {
+
+    @Query("""
+           SELECT new com.ekrishihub.backend.dto.SalesDay(
+                      r.salesDate,
+                      SUM(r.paidOrders), SUM(r.paidUnits), SUM(r.paidAmount),
+                      SUM(r.pendingOrders), SUM(r.pendingUnits), SUM(r.pendingAmount))
+             FROM FarmerSalesDaily r
+            WHERE r.farmerId = :farmerId AND r.salesDate BETWEEN :from AND :to
+            GROUP BY r.salesDate
+            ORDER BY r.salesDate
+           """)
+    List<SalesDay> sumByDay(@Param("farmerId") Long farmerId,
+                            @Param("from") LocalDate from,
+                            @Param("to") LocalDate to);
+
+    @Query("""
+           SELECT new com.ekrishihub.backend.dto.ProductSales(
+                      r.productId,
+                      COALESCE(MAX(p.name), CONCAT('Product #', CAST(r.productId AS String))),
+                      SUM(r.paidOrders), SUM(r.paidUnits), SUM(r.paidAmount),
+                      SUM(r.pendingOrders), SUM(r.pendingUnits), SUM(r.pendingAmount))
+             FROM FarmerSalesDaily r LEFT JOIN Product p ON p.id = r.productId
+            WHERE r.farmerId = :farmerId AND r.salesDate BETWEEN :from AND :to
+            GROUP BY r.productId
+            ORDER BY SUM(r.paidAmount) DESC, r.productId
+           """)
+    List<ProductSales> sumByProduct(@Param("farmerId") Long farmerId,
+                                    @Param("from") LocalDate from,
+                                    @Param("to") LocalDate to);
+}
@@ -0,0 +1,176 @@
+package com.ekrishihub.backend.repository;
+
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Writes to {@code farmer_sales_daily}: additive upserts for live deltas and a
+ * set-based rebuild from {@code orders}/{@code order_items} for repair, one
+ * day at a time. MySQL syntax ({@code ON DUPLICATE KEY UPDATE},
+ * {@code GET_LOCK}), like the rest of the schema.
+ */
+@Repository
+public class FarmerSalesJdbcRepository {
+
+    /** One row's worth of change; negative values subtract. */
+    public record Delta(long farmerId, LocalDate day, long productId,
+                        long paidOrders, long paidUnits, double paidAmount,
+                        long pendingOrders, long pendingUnits, double pendingAmount) {}
+
+    private static final String UPSERT_SQL = """
+            INSERT INTO farmer_sales_daily
+                   (farmer_id, sales_date, product_id,
+                    paid_orders, paid_units, paid_amount,
+                    pending_orders, pending_units, pending_amount)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)
+            ON DUPLICATE KEY UPDATE
+                   paid_orders    = paid_orders    + VALUES(paid_orders),
+                   paid_units     = paid_units     + VALUES(paid_units),
+                   paid_amount    = paid_amount    + VALUES(paid_amount),
+                   pending_orders = pending_orders + VALUES(pending_orders),
+                   pending_units  = pending_units  + VALUES(pending_units),
+                   pending_amount = pending_amount + VALUES(pending_amount)
+            """;
+
+    private static final String DELETE_DAY_SQL = "DELETE FROM farmer_sales_daily WHERE sales_date = ?";
+
+    /** Earliest order, live or archived; one probe each of the created_at indexes. */
+    private static final String OLDEST_ORDER_SQL = """
+            SELECT LEAST(COALESCE((SELECT MIN(created_at) FROM orders), CURRENT_TIMESTAMP),
+                         COALESCE((SELECT MIN(created_at) FROM orders_archive), CURRENT_TIMESTAMP))
+            """;
+
+    /** Held by whichever instance is rebuilding; 0 = do not wait for it. */
+    private static final String LOCK_NAME = "farmer_sales_daily.rebuild";
+    private static final String GET_LOCK_SQL = "SELECT GET_LOCK(?, 0)";
+    private static final String RELEASE_LOCK_SQL = "SELECT RELEASE_LOCK(?)";
+
+    /*
+     * Orders with checkout lines are attributed per line to the product's owner;
+     * single-product orders to orders.farmer_id. FAILED orders count nowhere.
+     * Archived orders (orders_archive / order_items_archive) count like live ones.
+     */
+    private static final String REBUILD_DAY_SQL = """
+            INSERT INTO farmer_sales_daily
+                   (farmer_id, sales_date, product_id,
+                    paid_orders, paid_units, paid_amount,
+                    pending_orders, pending_units, pending_amount)
+            SELECT farmer_id, sales_date, product_id,
+                   SUM(paid), SUM(paid * units), SUM(paid * amount),
+                   SUM(1 - paid), SUM((1 - paid) * units), SUM((1 - paid) * amount)
+              FROM (
+                    SELECT o.farmer_id AS farmer_id, DATE(o.created_at) AS sales_date, o.product_id AS product_id,
+                           CASE WHEN o.payment_status = 'PAID' THEN 1 ELSE 0 END AS paid,
+                           o.quantity AS units, o.total_amount AS amount
+                      FROM orders o
+                     WHERE o.created_at >= ? AND o.created_at < ?
+                       AND o.farmer_id IS NOT NULL
+                       AND COALESCE(o.payment_status, 'PENDING') <> 'FAILED'
+                       AND NOT EXISTS (SELECT 1 FROM order_items i WHERE i.order_id = o.id)
+                    UNION ALL
+                    SELECT p.owner_id, DATE(o.created_at), i.product_id,
+                           CASE WHEN o.payment_status = 'PAID' THEN 1 ELSE 0 END,
+                           i.quantity, i.quantity * i.price
+                      FROM order_items i
+                      JOIN orders o   ON o.id = i.order_id
+                      JOIN products p ON p.id = i.product_id
+                     WHERE o.created_at >= ? AND o.created_at < ?
+                       AND p.owner_id IS NOT NULL
+                       AND COALESCE(o.payment_status, 'PENDING') <> 'FAILED'
+                    UNION ALL
+                    SELECT o.farmer_id, DATE(o.created_at), o.product_id,
+                           CASE WHEN o.payment_status = 'PAID' THEN 1 ELSE 0 END,
+                           o.quantity, o.total_amount
+                      FROM orders_archive o
+                     WHERE o.created_at >= ? AND o.created_at < ?
+                       AND o.farmer_id IS NOT NULL
+                       AND COALESCE(o.payment_status, 'PENDING') <> 'FAILED'
+                       AND NOT EXISTS (SELECT 1 FROM order_items_archive i WHERE i.order_id = o.id)
+                    UNION ALL
+                    SELECT p.owner_id, DATE(o.created_at), i.product_id,
+                           CASE WHEN o.payment_status = 'PAID' THEN 1 ELSE 0 END,
+                           i.quantity, i.quantity * i.price
+                      FROM order_items_archive i
+                      JOIN orders_archive o ON o.id = i.order_id
+                      JOIN products p       ON p.id = i.product_id
+                     WHERE o.created_at >= ? AND o.created_at < ?
+                       AND p.owner_id IS NOT NULL
+                       AND COALESCE(o.payment_status, 'PENDING') <> 'FAILED'
+                   ) s
+             GROUP BY farmer_id, sales_date, product_id
+            """;
+
+    private final JdbcTemplate jdbc;
+
+    public FarmerSalesJdbcRepository(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    /** Applies {@code deltas} as one batch; callers pass them in key order to keep lock order stable. */
+    public void apply(List<Delta> deltas) {
+        if (deltas.isEmpty()) return;
+        jdbc.batchUpdate(UPSERT_SQL, deltas, deltas.size(), (ps, d) -> {
+            ps.setLong(1, d.farmerId());
+            ps.setDate(2, Date.valueOf(d.day()));
+            ps.setLong(3, d.productId());
+            ps.setLong(4, d.paidOrders());
+            ps.setLong(5, d.paidUnits());
+            ps.setDouble(6, d.paidAmount());
+            ps.setLong(7, d.pendingOrders());
+            ps.setLong(8, d.pendingUnits());
+            ps.setDouble(9, d.pendingAmount());
+        });
+    }
+
+    /**
+     * Recomputes the rollup rows of {@code day}; returns rows written. Run each
+     * day in its own transaction so the rows stay locked only briefly.
+     */
+    public int rebuildDay(LocalDate day) {
+        Timestamp start = Timestamp.valueOf(day.atStartOfDay());
+        Timestamp end = Timestamp.valueOf(day.plusDays(1).atStartOfDay());
+        jdbc.update(DELETE_DAY_SQL, Date.valueOf(day));
+        return jdbc.update(REBUILD_DAY_SQL, start, end, start, end, start, end, start, end);
+    }
+
+    /** Day of the earliest order, live or archived; today when there are none. */
+    public LocalDate oldestOrderDay() {
+        Timestamp t = jdbc.queryForObject(OLDEST_ORDER_SQL, Timestamp.class);
+        return t == null ? LocalDate.now() : t.toLocalDateTime().toLocalDate();
+    }
+
+    /**
+     * Runs {@code work} while holding the rebuild lock, a MySQL named lock
+     * kept on a connection of its own for the duration, so only one instance
+     * rebuilds at a time. Returns null without running it when another
+     * instance holds the lock. {@code work} must not rely on this connection:
+     * its own transactions take others from the pool.
+     */
+    public <T> T whileRebuildLocked(Supplier<T> work) {
+        return jdbc.execute((ConnectionCallback<T>) con -> {
+            try (PreparedStatement ps = con.prepareStatement(GET_LOCK_SQL)) {
+                ps.setString(1, LOCK_NAME);
+                try (ResultSet rs = ps.executeQuery()) {
+                    if (!rs.next() || rs.getInt(1) != 1) return null;
+                }
+            }
+            try {
+                return work.get();
+            } finally {
+                try (PreparedStatement ps = con.prepareStatement(RELEASE_LOCK_SQL)) {
+                    ps.setString(1, LOCK_NAME);
+                    ps.execute();
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,58 @@
+package com.ekrishihub.backend.repository;
+
+import com.ekrishihub.backend.entity.IdempotencyKey;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+/**
+ * Each write is its own short transaction so a claim is visible to a
+ * concurrent retry before the guarded work starts; {@code complete} joins the
+ * guarded work's transaction when there is one.
+ */
+public interface IdempotencyKeyRepository extends JpaRepository<IdempotencyKey, String> {
+
+    /** Plain INSERT (not a merge): a second claim of the same id fails on the primary key. */
+    @Modifying
+    @Transactional
+    @Query(value = """
+                   INSERT INTO idempotency_keys (id, request_hash, created_at, expires_at)
+                   VALUES (:id, :requestHash, :now, :expiresAt)
+                   """, nativeQuery = true)
+    int claim(@Param("id") String id,
+              @Param("requestHash") String requestHash,
+              @Param("now") LocalDateTime now,
+              @Param("expiresAt") LocalDateTime expiresAt);
+
+    @Modifying
+    @Transactional
+    @Query("""
+           UPDATE IdempotencyKey k
+              SET k.statusCode = :statusCode, k.responseBody = :body
+            WHERE k.id = :id
+           """)
+    int complete(@Param("id") String id,
+                 @Param("statusCode") int statusCode,
+                 @Param("body") String body);
+
+    /** Drops the row if it has expired; an unfinished one is kept until then. */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM IdempotencyKey k WHERE k.id = :id AND k.expiresAt < :now")
+    int deleteExpired(@Param("id") String id, @Param("now") LocalDateTime now);
+
+    /** Gives the key back after the guarded work failed (and rolled back), so the client can retry it. */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM IdempotencyKey k WHERE k.id = :id AND k.statusCode IS NULL")
+    int release(@Param("id") String id);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM IdempotencyKey k WHERE k.expiresAt < :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
@@ -0,0 +1,100 @@
+package com.ekrishihub.backend.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Moves settled orders (and their checkout lines) from the hot tables into
+ * {@code orders_archive} / {@code order_items_archive}. Each call moves one
+ * chunk with set-based statements and must run inside a transaction so the
+ * copy and the delete commit together.
+ */
+@Repository
+public class OrderArchiveJdbcRepository {
+
+    private static final String ORDER_COLUMNS = """
+            id, customer_id, product_id, farmer_id, quantity, address, total_amount,
+            payment_status, razorpay_order_id, razorpay_payment_id, razorpay_signature,
+            order_status, created_at""";
+
+    /** Last id old enough to move; one range probe of idx_orders_created. */
+    private static final String MAX_ID_BEFORE_SQL = "SELECT MAX(id) FROM orders WHERE created_at < ?";
+
+    /**
+     * Settled = paid, failed or cancelled; nothing moves such an order again.
+     * The upper id bound keeps the primary-key scan, and the row locks it
+     * takes, out of the recent orders still being written.
+     */
+    private static final String SELECT_CHUNK_SQL = """
+            SELECT id FROM orders
+             WHERE id > ?
+               AND id <= ?
+               AND created_at < ?
+               AND (payment_status IN ('PAID', 'FAILED') OR order_status = 'CANCELLED')
+             ORDER BY id
+             LIMIT ?
+             FOR UPDATE
+            """;
+
+    private static final String COPY_ORDERS_SQL =
+            "INSERT INTO orders_archive (" + ORDER_COLUMNS + ", archived_at) "
+            + "SELECT " + ORDER_COLUMNS + ", :now FROM orders WHERE id IN (:ids)";
+
+    private static final String COPY_ITEMS_SQL = """
+            INSERT INTO order_items_archive (id, order_id, product_id, quantity, price)
+            SELECT id, order_id, product_id, quantity, price FROM order_items WHERE order_id IN (:ids)
+            """;
+
+    private static final String DELETE_ITEMS_SQL = "DELETE FROM order_items WHERE order_id IN (:ids)";
+    private static final String DELETE_ORDERS_SQL = "DELETE FROM orders WHERE id IN (:ids)";
+
+    private static final String NEWEST_ARCHIVED_SQL = "SELECT MAX(created_at) FROM orders_archive";
+
+    private final JdbcTemplate jdbc;
+    private final NamedParameterJdbcTemplate named;
+
+    public OrderArchiveJdbcRepository(JdbcTemplate jdbc, NamedParameterJdbcTemplate named) {
+        this.jdbc = jdbc;
+        this.named = named;
+    }
+
+    /** Highest order id created before {@code before}; null when there is none. */
+    public Long maxIdBefore(LocalDateTime before) {
+        return jdbc.queryForObject(MAX_ID_BEFORE_SQL, Long.class, Timestamp.valueOf(before));
+    }
+
+    /**
+     * Locks and moves up to {@code limit} settled orders created before
+     * {@code before} with id in ({@code afterId}, {@code maxId}]. Returns the
+     * ids moved, in ascending order (empty when there is nothing left).
+     */
+    public List<Long> moveChunk(long afterId, long maxId, LocalDateTime before, int limit) {
+        List<Long> ids = jdbc.queryForList(SELECT_CHUNK_SQL, Long.class,
+                afterId, maxId, Timestamp.valueOf(before), limit);
+        if (ids.isEmpty()) return ids;
+
+        MapSqlParameterSource p = new MapSqlParameterSource()
+                .addValue("ids", ids)
+                .addValue("now", Timestamp.valueOf(LocalDateTime.now()));
+        named.update(COPY_ORDERS_SQL, p);
+        named.update(COPY_ITEMS_SQL, p);
+        named.update(DELETE_ITEMS_SQL, p);
+        named.update(DELETE_ORDERS_SQL, p);
+        return ids;
+    }
+
+    /**
+     * Creation time of the newest archived order, one probe of
+     * idx_orders_archive_created; null while the archive is empty.
+     */
+    public LocalDateTime newestArchived() {
+        Timestamp t = jdbc.queryForObject(NEWEST_ARCHIVED_SQL, Timestamp.class);
+        return t == null ? null : t.toLocalDateTime();
+    }
+}
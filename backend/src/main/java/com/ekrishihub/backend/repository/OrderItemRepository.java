@@ -2,6 +2,22 @@ package com.ekrishihub.backend.repository;
 
 import com.ekrishihub.backend.entity.OrderItem;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
 
 public interface OrderItemRepository extends JpaRepository<OrderItem, Long> {
+
+    @Query("SELECT i FROM OrderItem i JOIN FETCH i.product WHERE i.order.id = :orderId ORDER BY i.id")
+    List<OrderItem> findByOrderId(@Param("orderId") Long orderId);
+
+    @Query("SELECT i FROM OrderItem i JOIN FETCH i.product WHERE i.order.id IN :orderIds ORDER BY i.id")
+    List<OrderItem> findByOrderIdIn(@Param("orderIds") Collection<Long> orderIds);
+
+    @Modifying
+    @Query("DELETE FROM OrderItem i WHERE i.order.id = :orderId")
+    int deleteByOrderId(@Param("orderId") Long orderId);
 }
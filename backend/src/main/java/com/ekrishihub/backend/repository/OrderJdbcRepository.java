@@ -0,0 +1,65 @@
+package com.ekrishihub.backend.repository;
+
+import com.ekrishihub.backend.entity.OrderItem;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Plain-JDBC access to the order tables for multi-row writes. Runs on the
+ * connection of the surrounding JPA transaction.
+ */
+@Repository
+public class OrderJdbcRepository {
+
+    private static final String INSERT_ITEM_SQL = """
+            INSERT INTO order_items (order_id, product_id, quantity, price)
+            VALUES (?, ?, ?, ?)
+            """;
+
+    /** New payment status for every unpaid order attached to one gateway order. */
+    public record PaymentStatusUpdate(String razorpayOrderId, String paymentId, String paymentStatus) {}
+
+    private static final String UPDATE_PAYMENT_SQL = """
+            UPDATE orders
+               SET payment_status = ?,
+                   razorpay_payment_id = COALESCE(?, razorpay_payment_id)
+             WHERE razorpay_order_id = ?
+               AND (payment_status IS NULL OR payment_status <> 'PAID')
+            """;
+
+    private final JdbcTemplate jdbc;
+
+    public OrderJdbcRepository(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    /**
+     * Inserts the lines of one order as a single JDBC batch (one multi-row
+     * INSERT with {@code rewriteBatchedStatements=true}). Item ids are not read
+     * back; nothing addresses a line by id.
+     */
+    public void insertItems(List<OrderItem> items) {
+        if (items.isEmpty()) return;
+        jdbc.batchUpdate(INSERT_ITEM_SQL, items, items.size(), (ps, item) -> {
+            ps.setLong(1, item.getOrder().getId());
+            ps.setLong(2, item.getProduct().getId());
+            ps.setInt(3, item.getQuantity());
+            ps.setDouble(4, item.getPrice());
+        });
+    }
+
+    /**
+     * One UPDATE per gateway order (via idx_orders_razorpay_order), all sent as
+     * one JDBC batch. PAID rows are never rewritten.
+     */
+    public void updatePaymentStatuses(List<PaymentStatusUpdate> updates) {
+        if (updates.isEmpty()) return;
+        jdbc.batchUpdate(UPDATE_PAYMENT_SQL, updates, updates.size(), (ps, u) -> {
+            ps.setString(1, u.paymentStatus());
+            ps.setString(2, u.paymentId() == null || u.paymentId().isBlank() ? null : u.paymentId());
+            ps.setString(3, u.razorpayOrderId());
+        });
+    }
+}
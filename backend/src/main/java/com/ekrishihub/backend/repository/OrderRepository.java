@@ -1,15 +1,167 @@
 package com.ekrishihub.backend.repository;
 
+import com.ekrishihub.backend.dto.OrderResponse;
 import com.ekrishihub.backend.entity.Order;
 import com.ekrishihub.backend.entity.AppUser;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
-import java.util.Set;
 
 public interface OrderRepository extends JpaRepository<Order, Long> {
-  
+
+    /**
+     * Read-side projection of an order joined to its product (same fallbacks as
+     * OrderService.toResponse). Use with {@code FROM Order o LEFT JOIN Product p ON p.id = o.productId}.
+     */
+    String AS_RESPONSE = """
+           new com.ekrishihub.backend.dto.OrderResponse(
+               o.id, o.productId, o.farmerId, o.customerId,
+               o.quantity, o.address, o.totalAmount,
+               o.paymentStatus, o.orderStatus,
+               COALESCE(p.name, CONCAT('Product #', CAST(o.productId AS String))),
+               COALESCE(p.category, 'General'),
+               o.razorpayOrderId, o.razorpayPaymentId, CAST(NULL AS String),
+               o.createdAt)
+           """;
+
     List<Order> findByCustomerId(Long customerId);
-    List<Order> findByProductIdIn(Set<Long> productIds);
+
+    @Query("SELECT " + AS_RESPONSE + """
+           FROM Order o LEFT JOIN Product p ON p.id = o.productId
+           WHERE o.customerId = :customerId
+           ORDER BY o.createdAt DESC, o.id DESC
+           """)
+    List<OrderResponse> findResponsesByCustomerId(@Param("customerId") Long customerId);
+
+    /** Customer history, newest first; served by idx_orders_customer_created (customer_id, created_at). */
+    @Query("SELECT " + AS_RESPONSE + """
+           FROM Order o LEFT JOIN Product p ON p.id = o.productId
+           WHERE o.customerId = :customerId
+             AND (:paymentStatus IS NULL OR o.paymentStatus = :paymentStatus)
+             AND (:orderStatus IS NULL OR o.orderStatus = :orderStatus)
+             AND (:from IS NULL OR o.createdAt >= :from)
+             AND (:to IS NULL OR o.createdAt < :to)
+             AND (:afterCreatedAt IS NULL
+                  OR o.createdAt < :afterCreatedAt
+                  OR (o.createdAt = :afterCreatedAt AND o.id < :afterId))
+           ORDER BY o.createdAt DESC, o.id DESC
+           """)
+    List<OrderResponse> pageByCustomer(@Param("customerId") Long customerId,
+                                       @Param("paymentStatus") String paymentStatus,
+                                       @Param("orderStatus") String orderStatus,
+                                       @Param("from") LocalDateTime from,
+                                       @Param("to") LocalDateTime to,
+                                       @Param("afterCreatedAt") LocalDateTime afterCreatedAt,
+                                       @Param("afterId") Long afterId,
+                                       Pageable limit);
+
+    /*
+     * ---- Farmer feed: served by idx_orders_farmer_created (farmer_id, created_at) ----
+     * Multi-farmer checkouts made before checkout split per farmer have farmer_id NULL;
+     * those match through their lines' product owners (MySQL reads both via ref_or_null).
+     */
+    String FARMER_MATCH = """
+           (o.farmerId = :farmerId
+            OR (o.farmerId IS NULL AND EXISTS (
+                SELECT 1 FROM OrderItem i WHERE i.order.id = o.id AND i.product.ownerId = :farmerId)))
+           """;
+
+    @Query("SELECT " + AS_RESPONSE + """
+           FROM Order o LEFT JOIN Product p ON p.id = o.productId
+           WHERE
+           """ + FARMER_MATCH + """
+           ORDER BY o.createdAt DESC, o.id DESC
+           """)
+    List<OrderResponse> findResponsesByFarmerId(@Param("farmerId") Long farmerId);
+
+    /** Newest first; the page starts strictly after ({@code afterCreatedAt}, {@code afterId}). */
+    @Query("SELECT " + AS_RESPONSE + """
+           FROM Order o LEFT JOIN Product p ON p.id = o.productId
+           WHERE
+           """ + FARMER_MATCH + """
+             AND (:paymentStatus IS NULL OR o.paymentStatus = :paymentStatus)
+             AND (:orderStatus IS NULL OR o.orderStatus = :orderStatus)
+             AND (:from IS NULL OR o.createdAt >= :from)
+             AND (:to IS NULL OR o.createdAt < :to)
+             AND (:afterCreatedAt IS NULL
+                  OR o.createdAt < :afterCreatedAt
+                  OR (o.createdAt = :afterCreatedAt AND o.id < :afterId))
+           ORDER BY o.createdAt DESC, o.id DESC
+           """)
+    List<OrderResponse> pageByFarmer(@Param("farmerId") Long farmerId,
+                                     @Param("paymentStatus") String paymentStatus,
+                                     @Param("orderStatus") String orderStatus,
+                                     @Param("from") LocalDateTime from,
+                                     @Param("to") LocalDateTime to,
+                                     @Param("afterCreatedAt") LocalDateTime afterCreatedAt,
+                                     @Param("afterId") Long afterId,
+                                     Pageable limit);
+
+    @Modifying
+    @Query("UPDATE Order o SET o.orderStatus = :status WHERE o.id IN :ids")
+    int updateOrderStatus(@Param("ids") Collection<Long> ids, @Param("status") String status);
+
+    /** Row lock for the short write step after a gateway call. */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT o FROM Order o WHERE o.id = :id")
+    Optional<Order> findByIdForUpdate(@Param("id") Long id);
+
+    /** Locks in id order so concurrent bundles over overlapping orders cannot deadlock. */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT o FROM Order o WHERE o.id IN :ids ORDER BY o.id")
+    List<Order> findAllByIdForUpdate(@Param("ids") Collection<Long> ids);
+
+    /** Orders sharing one gateway order (a bundle); served by idx_orders_razorpay_order. */
+    long countByRazorpayOrderId(String razorpayOrderId);
+
+    /** Every order attached to these gateway orders, locked in id order; served by idx_orders_razorpay_order. */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT o FROM Order o WHERE o.razorpayOrderId IN :ids ORDER BY o.id")
+    List<Order> findByRazorpayOrderIdInForUpdate(@Param("ids") Collection<String> razorpayOrderIds);
+
+    /**
+     * Latest use of each gateway order over all orders attached to it, as
+     * (gateway order id, time) rows; served by idx_orders_razorpay_order.
+     */
+    @Query("""
+           SELECT o.razorpayOrderId, MAX(COALESCE(o.paymentStartedAt, o.createdAt))
+           FROM Order o
+           WHERE o.razorpayOrderId IN :ids
+           GROUP BY o.razorpayOrderId
+           """)
+    List<Object[]> findLastPaymentUse(@Param("ids") Collection<String> razorpayOrderIds);
+
+    /** Restarts the abandonment clock of a gateway order being handed out again. */
+    @Modifying
+    @Transactional
+    @Query("UPDATE Order o SET o.paymentStartedAt = :now WHERE o.razorpayOrderId = :id")
+    int touchPaymentStarted(@Param("id") String razorpayOrderId, @Param("now") LocalDateTime now);
+
+    /**
+     * Reconciliation scan: PENDING orders whose gateway order was last handed
+     * out before {@code before} (orders from before that was recorded fall
+     * back to their creation time), in id order after {@code afterId}; served
+     * by idx_orders_payment_status (payment_status, id).
+     */
+    @Query("""
+           SELECT o FROM Order o
+           WHERE o.paymentStatus = 'PENDING'
+             AND o.razorpayOrderId IS NOT NULL
+             AND COALESCE(o.paymentStartedAt, o.createdAt) < :before
+             AND o.id > :afterId
+           ORDER BY o.id
+           """)
+    List<Order> findStalePending(@Param("before") LocalDateTime before,
+                                 @Param("afterId") Long afterId,
+                                 Pageable limit);
 }
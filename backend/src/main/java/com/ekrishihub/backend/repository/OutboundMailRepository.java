@@ -0,0 +1,80 @@
+package com.ekrishihub.backend.repository;
+
+import com.ekrishihub.backend.entity.OutboundMail;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Each write is its own short transaction; claiming is an UPDATE guarded on
+ * the row still being due, so two workers never take the same mail.
+ */
+public interface OutboundMailRepository extends JpaRepository<OutboundMail, Long> {
+
+    @Query("""
+           SELECT m.id FROM OutboundMail m
+            WHERE m.status = 'PENDING' AND m.nextAttemptAt <= :now AND m.expiresAt > :now
+            ORDER BY m.id
+           """)
+    List<Long> findDueIds(@Param("now") LocalDateTime now, Pageable page);
+
+    /** Leases the still-due rows among {@code ids} to {@code token} until {@code leaseUntil}. */
+    @Modifying
+    @Transactional
+    @Query("""
+           UPDATE OutboundMail m
+              SET m.claimToken = :token, m.nextAttemptAt = :leaseUntil
+            WHERE m.id IN :ids AND m.status = 'PENDING' AND m.nextAttemptAt <= :now AND m.expiresAt > :now
+           """)
+    int claim(@Param("ids") Collection<Long> ids,
+              @Param("token") String token,
+              @Param("now") LocalDateTime now,
+              @Param("leaseUntil") LocalDateTime leaseUntil);
+
+    List<OutboundMail> findByClaimToken(String claimToken);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM OutboundMail m WHERE m.id IN :ids")
+    int deleteSent(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Transactional
+    @Query("""
+           UPDATE OutboundMail m
+              SET m.status = :status, m.attempts = m.attempts + 1, m.nextAttemptAt = :nextAttemptAt,
+                  m.claimToken = NULL, m.lastError = :error
+            WHERE m.id = :id
+           """)
+    int markFailed(@Param("id") Long id,
+                   @Param("status") String status,
+                   @Param("nextAttemptAt") LocalDateTime nextAttemptAt,
+                   @Param("error") String error);
+
+    /** Gives up on the row: kept for inspection, but without the message itself. */
+    @Modifying
+    @Transactional
+    @Query("""
+           UPDATE OutboundMail m
+              SET m.status = 'DEAD', m.attempts = m.attempts + 1, m.claimToken = NULL,
+                  m.lastError = :error, m.body = ''
+            WHERE m.id = :id
+           """)
+    int markDead(@Param("id") Long id, @Param("error") String error);
+
+    /** Deletes up to {@code limit} expired rows, sent or not; call until it returns less than {@code limit}. */
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM mail_outbox WHERE expires_at <= :now LIMIT :limit",
+           nativeQuery = true)
+    int deleteExpiredBatch(@Param("now") LocalDateTime now, @Param("limit") int limit);
+
+    long countByStatus(String status);
+}
@@ -0,0 +1,55 @@
+package com.ekrishihub.backend.repository;
+
+import com.ekrishihub.backend.entity.PaymentWebhookEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Each write is its own short transaction; claiming is an UPDATE guarded on
+ * the row still being due, so two workers never take the same event.
+ */
+public interface PaymentWebhookEventRepository extends JpaRepository<PaymentWebhookEvent, Long> {
+
+    @Query("SELECT e.id FROM PaymentWebhookEvent e WHERE e.nextAttemptAt <= :now ORDER BY e.id")
+    List<Long> findDueIds(@Param("now") LocalDateTime now, Pageable page);
+
+    /** Leases the still-due rows among {@code ids} to {@code token} until {@code leaseUntil}. */
+    @Modifying
+    @Transactional
+    @Query("""
+           UPDATE PaymentWebhookEvent e
+              SET e.claimToken = :token, e.nextAttemptAt = :leaseUntil
+            WHERE e.id IN :ids AND e.nextAttemptAt <= :now
+           """)
+    int claim(@Param("ids") Collection<Long> ids,
+              @Param("token") String token,
+              @Param("now") LocalDateTime now,
+              @Param("leaseUntil") LocalDateTime leaseUntil);
+
+    List<PaymentWebhookEvent> findByClaimToken(String claimToken);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM PaymentWebhookEvent e WHERE e.id IN :ids")
+    int deleteApplied(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Transactional
+    @Query("""
+           UPDATE PaymentWebhookEvent e
+              SET e.attempts = e.attempts + 1, e.nextAttemptAt = :nextAttemptAt,
+                  e.claimToken = NULL, e.lastError = :error
+            WHERE e.id = :id
+           """)
+    int markFailed(@Param("id") Long id,
+                   @Param("nextAttemptAt") LocalDateTime nextAttemptAt,
+                   @Param("error") String error);
+}
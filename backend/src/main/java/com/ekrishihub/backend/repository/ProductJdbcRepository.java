@@ -0,0 +1,108 @@
+package com.ekrishihub.backend.repository;
+
+import com.ekrishihub.backend.dto.ProductResponse;
+import com.ekrishihub.backend.entity.Product;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Plain-JDBC access to {@code products} for bulk paths where JPA's persistence
+ * context is pure overhead.
+ */
+@Repository
+public class ProductJdbcRepository {
+
+    private static final String EXPORT_SQL = """
+            SELECT id, name, category, description, price, stock, owner_id
+              FROM products
+             ORDER BY id
+            """;
+
+    private static final String INSERT_SQL = """
+            INSERT INTO products (name, category, description, price, stock, owner_id)
+            VALUES (?, ?, ?, ?, ?, ?)
+            """;
+
+    private final JdbcTemplate jdbc;
+    private final int exportFetchSize;
+
+    public ProductJdbcRepository(JdbcTemplate jdbc,
+                                 @Value("${app.export.fetch-size:1000}") int exportFetchSize) {
+        this.jdbc = jdbc;
+        this.exportFetchSize = exportFetchSize;
+    }
+
+    /**
+     * Streams every product through a forward-only, read-only result set.
+     * Rows are handed to {@code sink} one at a time and never collected, so heap
+     * use does not depend on catalog size. (MySQL honours a positive fetch size
+     * only with {@code useCursorFetch=true} on the JDBC URL.)
+     */
+    public void streamAll(Consumer<ProductResponse> sink) {
+        jdbc.query(con -> {
+            PreparedStatement ps = con.prepareStatement(EXPORT_SQL,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(exportFetchSize);
+            return ps;
+        }, rs -> {
+            sink.accept(mapRow(rs));
+        });
+    }
+
+    /**
+     * Inserts {@code batch} as one JDBC batch and writes the generated ids back
+     * onto the products. The ids stay AUTO_INCREMENT: with
+     * {@code rewriteBatchedStatements=true} the driver sends a single multi-row
+     * INSERT and still returns every key, which Hibernate cannot do for IDENTITY.
+     */
+    public void insertBatch(List<Product> batch) {
+        if (batch.isEmpty()) return;
+        jdbc.execute((ConnectionCallback<Void>) con -> {
+            try (PreparedStatement ps = con.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS)) {
+                for (Product p : batch) {
+                    ps.setString(1, p.getName());
+                    ps.setString(2, p.getCategory());
+                    ps.setString(3, p.getDescription());
+                    ps.setDouble(4, p.getPrice());
+                    ps.setInt(5, p.getQuantity());
+                    if (p.getOwnerId() == null) ps.setNull(6, Types.BIGINT);
+                    else ps.setLong(6, p.getOwnerId());
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+                try (ResultSet keys = ps.getGeneratedKeys()) {
+                    for (Product p : batch) {
+                        if (!keys.next()) break;
+                        p.setId(keys.getLong(1));
+                    }
+                }
+            }
+            return null;
+        });
+    }
+
+    private static ProductResponse mapRow(ResultSet rs) throws SQLException {
+        ProductResponse dto = new ProductResponse();
+        dto.setId(rs.getLong("id"));
+        dto.setName(rs.getString("name"));
+        dto.setCategory(rs.getString("category"));
+        dto.setDescription(rs.getString("description"));
+        double price = rs.getDouble("price");
+        dto.setPrice(rs.wasNull() ? null : price);
+        int stock = rs.getInt("stock");
+        dto.setQuantity(rs.wasNull() ? null : stock);
+        long owner = rs.getLong("owner_id");
+        dto.setOwnerId(rs.wasNull() ? null : owner);
+        return dto;
+    }
+}
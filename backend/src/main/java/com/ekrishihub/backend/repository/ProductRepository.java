@@ -1,30 +1,138 @@
 package com.ekrishihub.backend.repository;
 
+import com.ekrishihub.backend.dto.ProductResponse;
 import com.ekrishihub.backend.entity.Product;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.util.List;
+import java.util.Optional;
 
 public interface ProductRepository extends JpaRepository<Product, Long> {
 
+    /**
+     * Read-side projection: builds the DTO in the query (same null defaults as
+     * ProductService.mapSafe), so read paths never hydrate managed entities.
+     */
+    String AS_RESPONSE = """
+           new com.ekrishihub.backend.dto.ProductResponse(
+               p.id,
+               COALESCE(p.name, 'Unnamed'),
+               COALESCE(p.description, ''),
+               COALESCE(p.category, 'General'),
+               COALESCE(p.price, 0.0),
+               COALESCE(p.quantity, 0),
+               p.ownerId)
+           """;
+
     // For farmer-scoped queries
     List<Product> findByOwnerId(Long ownerId);
 
-    // Text + price-range search (type-safe with BigDecimal)
+    @Query("SELECT " + AS_RESPONSE + " FROM Product p")
+    List<ProductResponse> findAllResponses();
+
+    @Query("SELECT " + AS_RESPONSE + " FROM Product p WHERE p.ownerId = :ownerId")
+    List<ProductResponse> findResponsesByOwnerId(@Param("ownerId") Long ownerId);
+
+    @Query("SELECT " + AS_RESPONSE + " FROM Product p WHERE p.id = :id")
+    Optional<ProductResponse> findResponseById(@Param("id") Long id);
+
+    /**
+     * Owner edit of everything but stock, as a field-level UPDATE: writing the
+     * whole entity back would also restore the stock it was read with over
+     * reservations committed since.
+     */
+    @Modifying
+    @Transactional
     @Query("""
-           SELECT p FROM Product p
+           UPDATE Product p
+              SET p.name = :name, p.category = :category, p.description = :description, p.price = :price
+            WHERE p.id = :id
+           """)
+    int updateDetails(@Param("id") Long id,
+                      @Param("name") String name,
+                      @Param("category") String category,
+                      @Param("description") String description,
+                      @Param("price") Double price);
+
+    /* ---- Stock reservation: single conditional UPDATEs, no read-modify-write ---- */
+
+    /** Takes {@code qty} units if (and only if) that many are left; returns rows updated (0 or 1). */
+    @Modifying
+    @Query("UPDATE Product p SET p.quantity = p.quantity - :qty WHERE p.id = :id AND p.quantity >= :qty")
+    int reserveStock(@Param("id") Long id, @Param("qty") int qty);
+
+    /** Row lock for reading what is left before taking part of it. */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM Product p WHERE p.id = :id")
+    Optional<Product> findByIdForUpdate(@Param("id") Long id);
+
+    /** Puts {@code qty} units back (cancelled/failed orders). */
+    @Modifying
+    @Query("UPDATE Product p SET p.quantity = p.quantity + :qty WHERE p.id = :id")
+    int releaseStock(@Param("id") Long id, @Param("qty") int qty);
+
+    // Text + price-range search (type-safe with BigDecimal)
+    @Query("SELECT " + AS_RESPONSE + """
+           FROM Product p
            WHERE (:name IS NULL OR LOWER(p.name) LIKE LOWER(CONCAT('%', :name, '%')))
              AND (:category IS NULL OR LOWER(p.category) = LOWER(:category))
              AND (:minPrice IS NULL OR p.price >= :minPrice)
              AND (:maxPrice IS NULL OR p.price <= :maxPrice)
            """)
-    List<Product> searchProducts(
+    List<ProductResponse> searchProducts(
             @Param("name") String name,
             @Param("category") String category,
             @Param("minPrice") Double minPrice,
             @Param("maxPrice") Double maxPrice
     );
+
+    /* ---- Keyset pages for the public catalog (page size comes from the Pageable) ---- */
+
+    @Query("SELECT " + AS_RESPONSE + """
+           FROM Product p
+           WHERE (:afterId IS NULL OR p.id > :afterId)
+           ORDER BY p.id
+           """)
+    List<ProductResponse> pageById(@Param("afterId") Long afterId, Pageable limit);
+
+    @Query("SELECT " + AS_RESPONSE + """
+           FROM Product p
+           WHERE (:afterPrice IS NULL
+                  OR p.price > :afterPrice
+                  OR (p.price = :afterPrice AND p.id > :afterId))
+           ORDER BY p.price, p.id
+           """)
+    List<ProductResponse> pageByPriceAsc(@Param("afterPrice") Double afterPrice,
+                                         @Param("afterId") Long afterId,
+                                         Pageable limit);
+
+    @Query("SELECT " + AS_RESPONSE + """
+           FROM Product p
+           WHERE (:afterPrice IS NULL
+                  OR p.price < :afterPrice
+                  OR (p.price = :afterPrice AND p.id < :afterId))
+           ORDER BY p.price DESC, p.id DESC
+           """)
+    List<ProductResponse> pageByPriceDesc(@Param("afterPrice") Double afterPrice,
+                                          @Param("afterId") Long afterId,
+                                          Pageable limit);
+
+    @Query("SELECT " + AS_RESPONSE + """
+           FROM Product p
+           WHERE (:afterName IS NULL
+                  OR p.name > :afterName
+                  OR (p.name = :afterName AND p.id > :afterId))
+           ORDER BY p.name, p.id
+           """)
+    List<ProductResponse> pageByNameAsc(@Param("afterName") String afterName,
+                                        @Param("afterId") Long afterId,
+                                        Pageable limit);
 }
@@ -9,6 +9,14 @@ import java.util.Optional;
 
 public interface UserRepository extends JpaRepository<AppUser, Long> {
 
+    /** Who an email belongs to, without loading the password hash or profile. */
+    interface Identity {
+        Long getId();
+        String getEmail();
+        String getRole();
+        boolean isEnabled();
+    }
+
     // Primary lookup (case-insensitive)
     Optional<AppUser> findByEmailIgnoreCase(String email);
 
@@ -23,6 +31,9 @@ public interface UserRepository extends JpaRepository<AppUser, Long> {
     @Query("select u.id from AppUser u where lower(u.email) = lower(?1)")
     Optional<Long> findIdByEmailIgnoreCase(String email);
 
+    // id / role / enabled only (per-request token checks)
+    Optional<Identity> findIdentityByEmailIgnoreCase(String email);
+
     // Atomic activation: set both flags in one statement (used after OTP verify)
     @Modifying(clearAutomatically = true, flushAutomatically = true)
     @Transactional
@@ -34,6 +45,12 @@ public interface UserRepository extends JpaRepository<AppUser, Long> {
            """)
     int activateByEmail(@Param("email") String email);
 
+    // Store a re-encoded hash (login-time rehash when the BCrypt cost changes)
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Transactional
+    @Query("update AppUser u set u.password = :password where lower(u.email) = lower(:email)")
+    int updatePasswordByEmail(@Param("email") String email, @Param("password") String password);
+
     // (Optional) Normalize stored emails to lowercase (data-fix utility)
     @Modifying(clearAutomatically = true, flushAutomatically = true)
     @Transactional
@@ -17,6 +17,8 @@ public class AuthService {
     @Autowired private UserRepository userRepository;
     @Autowired private PasswordEncoder passwordEncoder;
     @Autowired private JwtUtil jwtUtil;
+    @Autowired private UserIdentityCache userIdentities;
+    @Autowired private PasswordCheckPool passwordChecks;
 
     // === Generic (existing) ===
     public AuthResponse register(AuthRequest req) {
@@ -27,12 +29,13 @@ public class AuthService {
 
         AppUser u = new AppUser();
         u.setEmail(req.getEmail());
-        u.setPassword(passwordEncoder.encode(req.getPassword()));
+        u.setPassword(passwordChecks.run(() -> passwordEncoder.encode(req.getPassword())));
         u.setRole(role);
         u.setName(req.getName());
         userRepository.save(u);
+        userIdentities.invalidate(u.getEmail());
 
-        String token = jwtUtil.generateToken(u.getEmail(), u.getRole());
+        String token = jwtUtil.generateToken(u);
         return new AuthResponse(token, u.getRole());
     }
 
@@ -40,12 +43,12 @@ public class AuthService {
         UsernamePasswordAuthenticationToken authToken =
                 new UsernamePasswordAuthenticationToken(req.getEmail(), req.getPassword());
         try {
-            authManager.authenticate(authToken);
+            passwordChecks.run(() -> authManager.authenticate(authToken));
         } catch (BadCredentialsException ex) {
             throw new RuntimeException("Invalid credentials");
         }
         AppUser u = userRepository.findByEmailIgnoreCase(req.getEmail()).orElseThrow();
-        String token = jwtUtil.generateToken(u.getEmail(), u.getRole());
+        String token = jwtUtil.generateToken(u);
         return new AuthResponse(token, u.getRole());
     }
 
@@ -58,12 +61,13 @@ public class AuthService {
 
         AppUser u = new AppUser();
         u.setEmail(req.getEmail());
-        u.setPassword(passwordEncoder.encode(req.getPassword()));
+        u.setPassword(passwordChecks.run(() -> passwordEncoder.encode(req.getPassword())));
         u.setRole(role);
         u.setName(req.getName());
         userRepository.save(u);
+        userIdentities.invalidate(u.getEmail());
 
-        String token = jwtUtil.generateToken(u.getEmail(), u.getRole());
+        String token = jwtUtil.generateToken(u);
         return new AuthResponse(token, u.getRole());
     }
 
@@ -72,7 +76,7 @@ public class AuthService {
         UsernamePasswordAuthenticationToken authToken =
                 new UsernamePasswordAuthenticationToken(req.getEmail(), req.getPassword());
         try {
-            authManager.authenticate(authToken);
+            passwordChecks.run(() -> authManager.authenticate(authToken));
         } catch (BadCredentialsException ex) {
             throw new RuntimeException("Invalid credentials");
         }
@@ -86,7 +90,7 @@ public class AuthService {
             throw new RuntimeException("Role mismatch");
         }
 
-        String token = jwtUtil.generateToken(u.getEmail(), u.getRole());
+        String token = jwtUtil.generateToken(u);
         return new AuthResponse(token, u.getRole());
     }
 
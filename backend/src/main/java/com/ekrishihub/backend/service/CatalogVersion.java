@@ -0,0 +1,79 @@
+// src/main/java/com/ekrishihub/backend/service/CatalogVersion.java
+package com.ekrishihub.backend.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Monotonic catalog version, bumped by every product mutation. Strong ETags for
+ * the listing endpoints are derived from it, so a conditional GET can be answered
+ * with 304 without touching the database.
+ *
+ * The process start time is part of the tag: the counter restarts at zero after
+ * a redeploy and must not match tags handed out by the previous process.
+ *
+ * Stock movements (every order placed or released) do not bump the version;
+ * they only mark the catalog as having stale stock, and the tag moves on at
+ * most once per {@code app.cache.products.ttl-seconds}. Listings may therefore
+ * show stock up to about that old, the same window the listing cache has.
+ */
+@Component
+public class CatalogVersion {
+
+  private final long epoch = System.currentTimeMillis();
+  private final AtomicLong version = new AtomicLong();
+  private final AtomicLong stockGeneration = new AtomicLong();
+  private final long stockWindowNanos;
+
+  private volatile boolean stockChanged;
+  private volatile long stockTickAt = System.nanoTime();
+
+  public CatalogVersion(@Value("${app.cache.products.ttl-seconds:300}") long ttlSeconds) {
+    this.stockWindowNanos = TimeUnit.SECONDS.toNanos(ttlSeconds);
+  }
+
+  /** Version of the catalog's shape: which products exist, their names, categories, prices. */
+  public long current() {
+    return version.get();
+  }
+
+  public long bump() {
+    return version.incrementAndGet();
+  }
+
+  /** Some product's stock moved; cheap enough to call on every reservation. */
+  public void stockChanged() {
+    stockChanged = true;
+  }
+
+  /** ETag for responses that are the same for every caller. */
+  public String etag() {
+    return "\"c" + Long.toString(epoch, 36) + "-" + current() + "." + stock() + "\"";
+  }
+
+  /** ETag for per-user views of the catalog (e.g. a farmer's own products). */
+  public String etagFor(String principal) {
+    String who = UUID.nameUUIDFromBytes(String.valueOf(principal).toLowerCase().getBytes(StandardCharsets.UTF_8)).toString();
+    return "\"c" + Long.toString(epoch, 36) + "-" + current() + "." + stock() + "-" + who + "\"";
+  }
+
+  /** Advances the stock part of the tag once the window since the last advance is up. */
+  private long stock() {
+    long now = System.nanoTime();
+    if (stockChanged && now - stockTickAt >= stockWindowNanos) {
+      synchronized (this) {
+        if (stockChanged && now - stockTickAt >= stockWindowNanos) {
+          stockChanged = false;
+          stockTickAt = now;
+          stockGeneration.incrementAndGet();
+        }
+      }
+    }
+    return stockGeneration.get();
+  }
+}
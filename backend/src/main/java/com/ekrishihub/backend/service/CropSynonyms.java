@@ -0,0 +1,80 @@
+// src/main/java/com/ekrishihub/backend/service/CropSynonyms.java
+package com.ekrishihub.backend.service;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Crop names as farmers and buyers actually type them: English, romanised
+ * Hindi/Marathi and Devanagari. Each group is a set of equivalent words; looking
+ * up any member returns the whole group, in both directions (a listing named
+ * "Tamatar" is found by "tomato" and vice versa).
+ */
+final class CropSynonyms {
+
+  private static final List<Set<String>> GROUPS = List.of(
+      Set.of("tomato", "tamatar", "tamaatar", "tamater", "टमाटर", "टोमॅटो", "टोमाटो"),
+      Set.of("potato", "aloo", "alu", "batata", "आलू", "आलु", "बटाटा"),
+      Set.of("onion", "pyaz", "pyaaz", "piyaz", "kanda", "प्याज", "प्याज़", "कांदा"),
+      Set.of("carrot", "gajar", "गाजर"),
+      Set.of("okra", "ladyfinger", "bhindi", "bhendi", "भिंडी", "भेंडी"),
+      Set.of("brinjal", "eggplant", "baingan", "baigan", "vangi", "vange", "बैंगन", "वांगी", "वांगे"),
+      Set.of("cauliflower", "gobi", "gobhi", "phoolgobi", "फूलगोभी", "गोभी", "फुलकोबी"),
+      Set.of("cabbage", "pattagobi", "kobi", "पत्तागोभी", "कोबी"),
+      Set.of("peas", "pea", "matar", "mattar", "vatana", "मटर", "वाटाणा"),
+      Set.of("chilli", "chili", "mirchi", "mirch", "मिर्च", "मिर्ची", "मिरची"),
+      Set.of("garlic", "lehsun", "lahsun", "lasun", "lasoon", "लहसुन", "लसूण"),
+      Set.of("ginger", "adrak", "adrakh", "अदरक", "आले"),
+      Set.of("spinach", "palak", "पालक"),
+      Set.of("fenugreek", "methi", "मेथी"),
+      Set.of("coriander", "dhaniya", "dhania", "kothimbir", "धनिया", "कोथिंबीर"),
+      Set.of("cucumber", "kheera", "khira", "kakdi", "खीरा", "ककड़ी", "काकडी"),
+      Set.of("lemon", "nimbu", "limbu", "नींबू", "निंबू", "लिंबू"),
+      Set.of("mango", "aam", "amba", "आम", "आंबा"),
+      Set.of("banana", "kela", "keli", "केला", "केळी"),
+      Set.of("orange", "santra", "santre", "संतरा", "संत्री"),
+      Set.of("grapes", "grape", "angoor", "angur", "draksh", "अंगूर", "द्राक्ष"),
+      Set.of("apple", "seb", "safarchand", "सेब", "सफरचंद"),
+      Set.of("pomegranate", "anar", "dalimb", "अनार", "डाळिंब"),
+      Set.of("wheat", "gehun", "gehu", "gahu", "गेहूं", "गेहूँ", "गहू"),
+      Set.of("rice", "chawal", "chaval", "tandul", "dhan", "paddy", "चावल", "तांदूळ", "धान"),
+      Set.of("millet", "bajra", "bajri", "बाजरा", "बाजरी"),
+      Set.of("sorghum", "jowar", "jwari", "ज्वार", "ज्वारी"),
+      Set.of("maize", "corn", "makka", "makai", "maka", "मक्का", "मका"),
+      Set.of("chickpea", "gram", "chana", "harbhara", "चना", "हरभरा"),
+      Set.of("pigeonpea", "tur", "toor", "arhar", "तूर", "अरहर"),
+      Set.of("moong", "mung", "greengram", "मूंग", "मूग"),
+      Set.of("groundnut", "peanut", "moongphali", "shengdana", "मूंगफली", "शेंगदाणा"),
+      Set.of("soybean", "soyabean", "soya", "सोयाबीन"),
+      Set.of("cotton", "kapas", "kapus", "कपास", "कापूस"),
+      Set.of("sugarcane", "ganna", "oos", "गन्ना", "ऊस"),
+      Set.of("turmeric", "haldi", "halad", "हल्दी", "हळद"),
+      Set.of("milk", "doodh", "dudh", "दूध")
+  );
+
+  private static final Map<String, Set<String>> BY_WORD = new HashMap<>();
+
+  static {
+    for (Set<String> group : GROUPS) {
+      for (String w : group) {
+        BY_WORD.put(w.toLowerCase(Locale.ROOT), group);
+      }
+    }
+  }
+
+  private CropSynonyms() {}
+
+  /** The equivalence group of {@code word} (including itself), or just the word. */
+  static Set<String> expand(String word) {
+    Set<String> group = BY_WORD.get(word);
+    return group != null ? group : Set.of(word);
+  }
+
+  /** Every word in the table, for typo-tolerant lookups of the synonyms themselves. */
+  static Set<String> vocabulary() {
+    return BY_WORD.keySet();
+  }
+}
@@ -10,7 +10,7 @@ import org.springframework.stereotype.Service;
 import java.util.Collections;
 
 @Service
-public class CustomUserDetailsService implements UserDetailsService {
+public class CustomUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
 
     @Autowired private UserRepository userRepository;
 
@@ -35,4 +35,11 @@ public class CustomUserDetailsService implements UserDetailsService {
                 )
         );
     }
+
+    // Called by the auth provider after a successful login whose stored hash needs upgrading
+    @Override
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        userRepository.updatePasswordByEmail(user.getUsername(), newPassword);
+        return User.withUserDetails(user).password(newPassword).build();
+    }
 }
@@ -0,0 +1,102 @@
+// src/main/java/com/ekrishihub/backend/service/FakeMailSender.java
+package com.ekrishihub.backend.service;
+
+import jakarta.mail.MessagingException;
+import jakarta.mail.Session;
+import jakarta.mail.internet.MimeMessage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.mail.MailParseException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.stereotype.Component;
+
+import java.io.InputStream;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * Local SMTP sink for tests, local runs and load tests
+ * ({@code app.mail.sender=fake}); replaces Boot's SMTP sender. Each
+ * {@code send} call stands in for one connection: it waits
+ * {@code latency-ms} once, then records every message. The last
+ * {@code keep} messages can be read back with {@link #sent()}.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.mail.sender", havingValue = "fake")
+public class FakeMailSender implements JavaMailSender {
+
+  private final Session session = Session.getInstance(new Properties());
+  private final ArrayDeque<SimpleMailMessage> sent = new ArrayDeque<>();
+  private final long latencyMillis;
+  private final int keep;
+
+  public FakeMailSender(@Value("${app.mail.fake.latency-ms:0}") long latencyMillis,
+                        @Value("${app.mail.fake.keep:1000}") int keep) {
+    this.latencyMillis = latencyMillis;
+    this.keep = keep;
+    log.warn("Using the fake mail sender; no email will leave this process");
+  }
+
+  /** Messages received so far, oldest first. */
+  public synchronized List<SimpleMailMessage> sent() {
+    return new ArrayList<>(sent);
+  }
+
+  public synchronized void clear() {
+    sent.clear();
+  }
+
+  @Override
+  public void send(SimpleMailMessage... simpleMessages) {
+    pause();
+    for (SimpleMailMessage m : simpleMessages) record(new SimpleMailMessage(m));
+  }
+
+  @Override
+  public void send(MimeMessage... mimeMessages) {
+    pause();
+    for (MimeMessage m : mimeMessages) {
+      try {
+        SimpleMailMessage copy = new SimpleMailMessage();
+        copy.setTo(String.valueOf(m.getAllRecipients() == null ? null : m.getAllRecipients()[0]));
+        copy.setSubject(m.getSubject());
+        record(copy);
+      } catch (MessagingException ex) {
+        throw new MailParseException(ex);
+      }
+    }
+  }
+
+  @Override
+  public MimeMessage createMimeMessage() {
+    return new MimeMessage(session);
+  }
+
+  @Override
+  public MimeMessage createMimeMessage(InputStream contentStream) {
+    try {
+      return new MimeMessage(session, contentStream);
+    } catch (MessagingException ex) {
+      throw new MailParseException(ex);
+    }
+  }
+
+  private synchronized void record(SimpleMailMessage m) {
+    sent.addLast(m);
+    while (sent.size() > keep) sent.pollFirst();
+  }
+
+  private void pause() {
+    if (latencyMillis <= 0) return;
+    try {
+      Thread.sleep(latencyMillis);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
@@ -0,0 +1,242 @@
+// src/main/java/com/ekrishihub/backend/service/IdempotencyService.java
+package com.ekrishihub.backend.service;
+
+import com.ekrishihub.backend.entity.IdempotencyKey;
+import com.ekrishihub.backend.repository.IdempotencyKeyRepository;
+import com.ekrishihub.backend.util.BoundedCache;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.function.Supplier;
+
+/**
+ * {@code Idempotency-Key} support for POSTs that create orders or gateway orders.
+ *
+ * The first request with a key claims a row in {@code idempotency_keys}, runs,
+ * and stores its response; a retry with the same key and body gets that
+ * response back without running again, and finished keys are also held in a
+ * bounded in-memory map so most replays never reach the database. A retry
+ * that arrives while the first is still running gets 409; the same key with a
+ * different body gets 422. If the work fails the claim is released, so the
+ * client can simply try again. Without the header nothing changes.
+ *
+ * For work that only touches the database ({@link #executeInTransaction})
+ * the response is recorded in the same transaction as the work, so the two
+ * commit or roll back together. A claim whose outcome is unknown (the process
+ * died mid-request, or the response of non-transactional work could not be
+ * stored) is never taken over: retries get 409 until the key expires.
+ */
+@Slf4j
+@Service
+public class IdempotencyService {
+
+  public static final String HEADER = "Idempotency-Key";
+  public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+  private static final int MAX_KEY_LENGTH = 255;
+
+  private final IdempotencyKeyRepository repository;
+  private final ObjectMapper objectMapper;
+  private final TransactionTemplate tx;
+  private final Duration ttl;
+  private final BoundedCache<String, Stored> completed;
+
+  public IdempotencyService(
+      IdempotencyKeyRepository repository,
+      ObjectMapper objectMapper,
+      TransactionTemplate tx,
+      @Value("${app.idempotency.ttl-hours:24}") long ttlHours,
+      @Value("${app.idempotency.cache.max-size:10000}") int cacheSize
+  ) {
+    this.repository = repository;
+    this.objectMapper = objectMapper;
+    this.tx = tx;
+    this.ttl = Duration.ofHours(ttlHours);
+    this.completed = new BoundedCache<>(cacheSize, this.ttl);
+  }
+
+  /** A finished response as first returned. */
+  private record Stored(String requestHash, int status, String body, LocalDateTime expiresAt) {}
+
+  /**
+   * Runs {@code action} at most once per (scope, principal, key) and answers
+   * with {@code status} and its result; replays answer with the stored copy.
+   * {@code key == null} just runs the action. For work with side effects
+   * outside the database (gateway calls), which cannot share a transaction
+   * with the stored response.
+   */
+  public ResponseEntity<?> execute(String scope, String principal, String key, Object request,
+                                   HttpStatus status, Supplier<?> action) {
+    return run(scope, principal, key, request, status, action, false);
+  }
+
+  /**
+   * Like {@link #execute}, but {@code action} and the stored response share
+   * one transaction: either both commit or neither does.
+   */
+  public ResponseEntity<?> executeInTransaction(String scope, String principal, String key, Object request,
+                                                HttpStatus status, Supplier<?> action) {
+    return run(scope, principal, key, request, status, action, true);
+  }
+
+  /** Expired keys are dead weight; the index on expires_at keeps this a range delete. */
+  @Scheduled(fixedDelayString = "${app.idempotency.purge-interval-ms:3600000}")
+  public void purgeExpired() {
+    int n = repository.deleteExpired(LocalDateTime.now());
+    if (n > 0) log.info("Purged {} expired idempotency keys", n);
+  }
+
+  /* ----------------------------- HELPERS ---------------------------- */
+
+  private ResponseEntity<?> run(String scope, String principal, String key, Object request,
+                                HttpStatus status, Supplier<?> action, boolean inTransaction) {
+    if (key == null) {
+      return ResponseEntity.status(status).body(action.get());
+    }
+    String k = key.trim();
+    if (k.isEmpty() || k.length() > MAX_KEY_LENGTH) {
+      throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+          HEADER + " must be 1-" + MAX_KEY_LENGTH + " characters");
+    }
+
+    String id = sha256(scope + "\n" + principal + "\n" + k);
+    String requestHash = sha256(toJson(request));
+
+    Stored hit = completed.get(id);
+    if (hit != null && hit.expiresAt().isAfter(LocalDateTime.now())) {
+      return replay(hit, requestHash);
+    }
+
+    LocalDateTime now = LocalDateTime.now();
+    LocalDateTime expiresAt = now.plus(ttl);
+    IdempotencyKey row = repository.findById(id).orElse(null);
+    if (row != null && !isReusable(row, now)) {
+      return answerExisting(id, row, requestHash);
+    }
+    if (!claim(id, requestHash, now, expiresAt)) {
+      // Lost the race to a concurrent first attempt
+      row = repository.findById(id).orElseThrow(IdempotencyService::inFlight);
+      return answerExisting(id, row, requestHash);
+    }
+
+    if (inTransaction) {
+      Object[] result = new Object[1];
+      String body;
+      try {
+        body = tx.execute(s -> {
+          result[0] = action.get();
+          String json = toJson(result[0]);
+          repository.complete(id, status.value(), json);
+          return json;
+        });
+      } catch (RuntimeException | Error e) {
+        // Rolled back together with the work: nothing happened, so the key is free again
+        repository.release(id);
+        throw e;
+      }
+      completed.put(id, new Stored(requestHash, status.value(), body, expiresAt));
+      return ResponseEntity.status(status).body(result[0]);
+    }
+
+    Object result;
+    try {
+      result = action.get();
+    } catch (RuntimeException | Error e) {
+      repository.release(id);
+      throw e;
+    }
+
+    String body = toJson(result);
+    try {
+      repository.complete(id, status.value(), body);
+      completed.put(id, new Stored(requestHash, status.value(), body, expiresAt));
+    } catch (RuntimeException e) {
+      // The work is done but unrecorded: the key stays claimed, and retries get 409 until it expires
+      log.warn("Could not store idempotent response for {}: {}", scope, e.toString());
+    }
+    return ResponseEntity.status(status).body(result);
+  }
+
+  /** Inserts the in-flight row, first clearing an expired one. */
+  private boolean claim(String id, String requestHash, LocalDateTime now, LocalDateTime expiresAt) {
+    repository.deleteExpired(id, now);
+    try {
+      repository.claim(id, requestHash, now, expiresAt);
+      return true;
+    } catch (DataIntegrityViolationException e) {
+      return false;
+    }
+  }
+
+  /** Someone else holds the key: replay their response, or refuse while it is still running. */
+  private ResponseEntity<?> answerExisting(String id, IdempotencyKey row, String requestHash) {
+    if (row.getStatusCode() == null) {
+      if (!row.getRequestHash().equals(requestHash)) throw mismatch();
+      throw inFlight();
+    }
+    Stored stored = new Stored(row.getRequestHash(), row.getStatusCode(),
+        row.getResponseBody(), row.getExpiresAt());
+    completed.put(id, stored);
+    return replay(stored, requestHash);
+  }
+
+  /**
+   * Only an expired key. An unfinished one may still be running, or may have
+   * done its work and died before recording it; running it again could
+   * duplicate that work.
+   */
+  private boolean isReusable(IdempotencyKey row, LocalDateTime now) {
+    return row.getExpiresAt().isBefore(now);
+  }
+
+  private ResponseEntity<?> replay(Stored stored, String requestHash) {
+    if (!stored.requestHash().equals(requestHash)) throw mismatch();
+    return ResponseEntity.status(stored.status())
+        .header(REPLAYED_HEADER, "true")
+        .contentType(MediaType.APPLICATION_JSON)
+        .body(stored.body());
+  }
+
+  private String toJson(Object value) {
+    try {
+      return objectMapper.writeValueAsString(value);
+    } catch (JsonProcessingException e) {
+      throw new IllegalStateException("Cannot serialize for idempotency", e);
+    }
+  }
+
+  private static String sha256(String s) {
+    try {
+      MessageDigest md = MessageDigest.getInstance("SHA-256");
+      return HexFormat.of().formatHex(md.digest(s.getBytes(StandardCharsets.UTF_8)));
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private static ResponseStatusException inFlight() {
+    return new ResponseStatusException(HttpStatus.CONFLICT,
+        "A request with this " + HEADER + " is still being processed");
+  }
+
+  private static ResponseStatusException mismatch() {
+    return new ResponseStatusException(HttpStatus.UNPROCESSABLE_ENTITY,
+        HEADER + " was already used with a different request body");
+  }
+}
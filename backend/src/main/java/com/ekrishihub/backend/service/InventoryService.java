@@ -0,0 +1,126 @@
+// src/main/java/com/ekrishihub/backend/service/InventoryService.java
+package com.ekrishihub.backend.service;
+
+import com.ekrishihub.backend.entity.Order;
+import com.ekrishihub.backend.entity.Product;
+import com.ekrishihub.backend.repository.ProductRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Stock held by orders.
+ *
+ * Every reservation is one conditional {@code UPDATE ... WHERE stock >= qty}, so
+ * concurrent buyers of the same product contend only for the duration of that
+ * statement's row lock and stock can never go negative. Runs inside the
+ * caller's transaction: if the order write fails, the reservation rolls back
+ * with it. The product's index entries and cached copy are refreshed after
+ * commit through {@link ProductService#refreshStockFromStore}.
+ *
+ * An order holds stock from placement until it is deleted unpaid or its
+ * payment fails; see {@link #holdsStock(Order)}.
+ */
+@Service
+@RequiredArgsConstructor
+public class InventoryService {
+
+  private final ProductRepository productRepository;
+  private final ProductService productService;
+
+  /** Takes {@code qty} units of the product or fails with 409 if fewer are left. */
+  @Transactional
+  public void reserve(Long productId, int qty) {
+    if (qty <= 0) return;
+    if (productRepository.reserveStock(productId, qty) == 0) {
+      if (!productRepository.existsById(productId)) {
+        throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Product not found");
+      }
+      throw new ResponseStatusException(HttpStatus.CONFLICT, "Insufficient stock for product " + productId);
+    }
+    refreshAfterCommit(productId);
+  }
+
+  /**
+   * For an order that is already paid for: takes {@code qty} units, or as
+   * many as are left, and returns how many were missing. Never fails for lack
+   * of stock, since the money cannot be turned away.
+   */
+  @Transactional
+  public int reserveAvailable(Long productId, int qty) {
+    if (qty <= 0) return 0;
+    if (productRepository.reserveStock(productId, qty) > 0) {
+      refreshAfterCommit(productId);
+      return 0;
+    }
+    Integer left = productRepository.findByIdForUpdate(productId).map(Product::getQuantity).orElse(null);
+    int take = left == null ? 0 : Math.max(0, Math.min(qty, left));
+    if (take > 0) {
+      productRepository.reserveStock(productId, take);   // cannot miss: the row is locked
+      refreshAfterCommit(productId);
+    }
+    return qty - take;
+  }
+
+  /** Returns {@code qty} units to the product. */
+  @Transactional
+  public void release(Long productId, int qty) {
+    if (qty <= 0) return;
+    if (productRepository.releaseStock(productId, qty) > 0) {
+      refreshAfterCommit(productId);
+    }
+  }
+
+  /** A held order's quantity changed from {@code oldQty} to {@code newQty}. */
+  @Transactional
+  public void adjust(Long productId, int oldQty, int newQty) {
+    if (newQty > oldQty) {
+      reserve(productId, newQty - oldQty);
+    } else if (newQty < oldQty) {
+      release(productId, oldQty - newQty);
+    }
+  }
+
+  /**
+   * The owner set the stock from {@code fromQty} (what they last read) to
+   * {@code toQty}. Applied as a difference, so units reserved since the read
+   * stay taken; 409 if lowering it would take more than is left.
+   */
+  @Transactional
+  public void restock(Long productId, int fromQty, int toQty) {
+    if (toQty > fromQty) {
+      if (productRepository.releaseStock(productId, toQty - fromQty) > 0) refreshAfterCommit(productId);
+    } else if (toQty < fromQty) {
+      reserve(productId, fromQty - toQty);
+    }
+  }
+
+  /** Whether the order currently has its quantity taken out of stock. */
+  public static boolean holdsStock(Order o) {
+    return holdsStock(o.getPaymentStatus());
+  }
+
+  /** Whether an order in {@code paymentStatus} has its quantity taken out of stock. */
+  public static boolean holdsStock(String paymentStatus) {
+    return !"FAILED".equalsIgnoreCase(String.valueOf(paymentStatus));
+  }
+
+  /* ----------------------------- HELPERS ---------------------------- */
+
+  private void refreshAfterCommit(Long productId) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      productService.refreshStockFromStore(productId);
+      return;
+    }
+    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+      @Override
+      public void afterCommit() {
+        productService.refreshStockFromStore(productId);
+      }
+    });
+  }
+}
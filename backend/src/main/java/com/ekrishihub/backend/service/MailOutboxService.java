@@ -0,0 +1,252 @@
+// src/main/java/com/ekrishihub/backend/service/MailOutboxService.java
+package com.ekrishihub.backend.service;
+
+import com.ekrishihub.backend.entity.OutboundMail;
+import com.ekrishihub.backend.repository.OutboundMailRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Outgoing mail, sent off the request path.
+ *
+ * {@link #enqueue} only inserts a {@code mail_outbox} row and wakes a worker,
+ * so callers never wait on SMTP. {@code workers} threads each lease up to
+ * {@code batch-size} due rows and hand them to {@code JavaMailSender} in one
+ * call, which delivers the whole batch over a single SMTP connection. Sent
+ * rows are deleted; failed ones are retried with exponential backoff and
+ * jitter, and kept as DEAD, with the body cleared, after {@code max-attempts}.
+ * A lease that outlives a crashed worker simply runs out and the rows are
+ * picked up again, so a message can (rarely) go out twice.
+ *
+ * Every row has an expiry ({@code max-age-hours}, or the caller's own, such
+ * as an OTP's lifetime): an expired message is never sent, and the row is
+ * purged whether it is still pending or dead. Meters are published as
+ * {@code mail.outbox.*}.
+ */
+@Slf4j
+@Service
+public class MailOutboxService {
+
+  static final String PENDING = "PENDING";
+  static final String DEAD = "DEAD";
+
+  private final OutboundMailRepository repository;
+  private final JavaMailSender mailSender;
+  private final String from;
+  private final int workerCount;
+  private final int batchSize;
+  private final int maxAttempts;
+  private final long retryBaseSeconds;
+  private final long retryMaxSeconds;
+  private final long leaseSeconds;
+  private final long pollMillis;
+  private final Duration maxAge;
+  private final int purgeBatch;
+
+  private final Semaphore wake = new Semaphore(0);
+  private final List<Thread> workers = new ArrayList<>();
+  private volatile boolean running;
+
+  private final Counter enqueued;
+  private final Counter sent;
+  private final Counter retried;
+  private final Counter dead;
+  private final Counter expired;
+
+  public MailOutboxService(
+      OutboundMailRepository repository,
+      JavaMailSender mailSender,
+      MeterRegistry meters,
+      @Value("${app.mail.from}") String from,
+      @Value("${app.mail.outbox.workers:2}") int workerCount,
+      @Value("${app.mail.outbox.batch-size:20}") int batchSize,
+      @Value("${app.mail.outbox.max-attempts:8}") int maxAttempts,
+      @Value("${app.mail.outbox.retry-base-seconds:15}") long retryBaseSeconds,
+      @Value("${app.mail.outbox.retry-max-seconds:3600}") long retryMaxSeconds,
+      @Value("${app.mail.outbox.lease-seconds:120}") long leaseSeconds,
+      @Value("${app.mail.outbox.poll-ms:5000}") long pollMillis,
+      @Value("${app.mail.outbox.max-age-hours:24}") long maxAgeHours,
+      @Value("${app.mail.outbox.purge-batch-size:1000}") int purgeBatch
+  ) {
+    this.repository = repository;
+    this.mailSender = mailSender;
+    this.from = from;
+    this.workerCount = workerCount;
+    this.batchSize = batchSize;
+    this.maxAttempts = maxAttempts;
+    this.retryBaseSeconds = retryBaseSeconds;
+    this.retryMaxSeconds = retryMaxSeconds;
+    this.leaseSeconds = leaseSeconds;
+    this.pollMillis = pollMillis;
+    this.maxAge = Duration.ofHours(maxAgeHours);
+    this.purgeBatch = purgeBatch;
+
+    Gauge.builder("mail.outbox.pending", repository, r -> r.countByStatus(PENDING)).register(meters);
+    Gauge.builder("mail.outbox.dead", repository, r -> r.countByStatus(DEAD)).register(meters);
+    this.enqueued = Counter.builder("mail.outbox.messages").tag("result", "enqueued").register(meters);
+    this.sent = Counter.builder("mail.outbox.messages").tag("result", "sent").register(meters);
+    this.retried = Counter.builder("mail.outbox.messages").tag("result", "retried").register(meters);
+    this.dead = Counter.builder("mail.outbox.messages").tag("result", "dead").register(meters);
+    this.expired = Counter.builder("mail.outbox.messages").tag("result", "expired").register(meters);
+  }
+
+  /* ----------------------------- INTAKE ----------------------------- */
+
+  /** Stores the message for delivery and returns at once. */
+  public void enqueue(String to, String subject, String body) {
+    enqueue(to, subject, body, maxAge);
+  }
+
+  /** Like {@link #enqueue(String, String, String)} for a message that is pointless after {@code ttl}. */
+  public void enqueue(String to, String subject, String body, Duration ttl) {
+    LocalDateTime now = LocalDateTime.now();
+    LocalDateTime expiresAt = now.plus(ttl.compareTo(maxAge) < 0 ? ttl : maxAge);
+    repository.save(new OutboundMail(null, to, subject, body, PENDING, 0, now, null, null, now, expiresAt));
+    enqueued.increment();
+    wake.release();
+  }
+
+  /* ----------------------------- WORKERS ---------------------------- */
+
+  @PostConstruct
+  void start() {
+    running = true;
+    for (int i = 1; i <= workerCount; i++) {
+      Thread t = new Thread(this::workLoop, "mail-outbox-" + i);
+      t.setDaemon(true);
+      t.start();
+      workers.add(t);
+    }
+  }
+
+  @PreDestroy
+  void stop() throws InterruptedException {
+    running = false;
+    wake.release(workers.size());
+    // Whatever is not sent by then stays in the table for the next start
+    for (Thread t : workers) t.join(TimeUnit.SECONDS.toMillis(10));
+  }
+
+  private void workLoop() {
+    while (running) {
+      try {
+        // Woken by enqueue, or every poll-ms for retries that have come due
+        wake.tryAcquire(pollMillis, TimeUnit.MILLISECONDS);
+        wake.drainPermits();
+        while (running && sendBatch() == batchSize) {
+          // full batch: more may be waiting
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return;
+      } catch (RuntimeException e) {
+        log.error("Mail outbox worker error", e);
+      }
+    }
+  }
+
+  /** Leases and sends one batch of due mail; returns how many rows it took. */
+  int sendBatch() {
+    LocalDateTime now = LocalDateTime.now();
+    List<Long> due = repository.findDueIds(now, PageRequest.of(0, batchSize));
+    if (due.isEmpty()) return 0;
+    String token = UUID.randomUUID().toString();
+    if (repository.claim(due, token, now, now.plusSeconds(leaseSeconds)) == 0) return 0;
+    List<OutboundMail> batch = repository.findByClaimToken(token);
+    if (batch.isEmpty()) return 0;
+
+    SimpleMailMessage[] messages = new SimpleMailMessage[batch.size()];
+    for (int i = 0; i < messages.length; i++) messages[i] = toMessage(batch.get(i));
+
+    Map<Object, Exception> failures = Map.of();
+    MailException whole = null;
+    try {
+      mailSender.send(messages);
+    } catch (MailSendException ex) {
+      failures = ex.getFailedMessages();
+      if (failures.isEmpty()) whole = ex;
+    } catch (MailException ex) {
+      whole = ex;
+    }
+
+    List<Long> delivered = new ArrayList<>();
+    for (int i = 0; i < messages.length; i++) {
+      Exception error = whole != null ? whole : failures.get(messages[i]);
+      if (error == null) {
+        delivered.add(batch.get(i).getId());
+      } else {
+        retryLater(batch.get(i), error);
+      }
+    }
+    if (!delivered.isEmpty()) {
+      repository.deleteSent(delivered);
+      sent.increment(delivered.size());
+    }
+    return batch.size();
+  }
+
+  /** Drops expired rows: pending mail nobody needs any more, and dead rows kept for inspection. */
+  @Scheduled(fixedDelayString = "${app.mail.outbox.purge-interval-ms:60000}")
+  public void purgeExpired() {
+    LocalDateTime now = LocalDateTime.now();
+    int total = 0, n;
+    do { n = repository.deleteExpiredBatch(now, purgeBatch); total += n; } while (n == purgeBatch);
+    if (total > 0) {
+      expired.increment(total);
+      log.info("Purged {} expired outbox rows", total);
+    }
+  }
+
+  /* ----------------------------- HELPERS ---------------------------- */
+
+  private SimpleMailMessage toMessage(OutboundMail m) {
+    SimpleMailMessage msg = new SimpleMailMessage();
+    msg.setFrom(from);
+    msg.setTo(m.getRecipient());
+    msg.setSubject(m.getSubject());
+    msg.setText(m.getBody());
+    return msg;
+  }
+
+  private void retryLater(OutboundMail m, Exception error) {
+    int attempts = m.getAttempts() + 1;
+    String reason = String.valueOf(error.getMessage());
+    if (reason.length() > 500) reason = reason.substring(0, 500);
+
+    if (attempts >= maxAttempts) {
+      repository.markDead(m.getId(), reason);
+      dead.increment();
+      log.error("Giving up on mail {} to {} after {} attempts: {}", m.getId(), m.getRecipient(), attempts, reason);
+      return;
+    }
+    // base * 2^(attempts-1), capped, plus up to 20% jitter so a recovering server is not hit all at once
+    long delay = Math.min(retryMaxSeconds, retryBaseSeconds << Math.min(attempts - 1, 20));
+    delay += ThreadLocalRandom.current().nextLong(delay / 5 + 1);
+    // A retry past the expiry would never be picked up; the purge takes the row then
+    repository.markFailed(m.getId(), PENDING, LocalDateTime.now().plusSeconds(delay), reason);
+    retried.increment();
+    log.warn("Mail {} to {} failed (attempt {}), retrying in {}s: {}", m.getId(), m.getRecipient(), attempts, delay, reason);
+  }
+}
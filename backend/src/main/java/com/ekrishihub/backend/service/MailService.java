@@ -1,29 +1,23 @@
 package com.ekrishihub.backend.service;
 
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.mail.SimpleMailMessage;
-import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.stereotype.Service;
 import lombok.RequiredArgsConstructor;
 
+import java.time.Duration;
+
+/** Composes the app's emails; delivery goes through {@link MailOutboxService}. */
 @Service @RequiredArgsConstructor
 public class MailService {
-  private final JavaMailSender mailSender;
-  @Value("${app.mail.from}") private String from;
+  private final MailOutboxService outbox;
 
   public void sendOtpEmail(String to, String otp, int ttlMinutes) {
-    SimpleMailMessage msg = new SimpleMailMessage();
-    msg.setFrom(from);
-    msg.setTo(to);
-    msg.setSubject("Your e-KrishiHub verification code");
-    msg.setText("""
+    outbox.enqueue(to, "Your e-KrishiHub verification code", """
         Hello,
 
         Your verification code is: %s
         It expires in %d minutes.
 
         If you did not request this, ignore this email.
-        """.formatted(otp, ttlMinutes));
-    mailSender.send(msg);
+        """.formatted(otp, ttlMinutes), Duration.ofMinutes(ttlMinutes));
   }
 }
@@ -0,0 +1,131 @@
+// src/main/java/com/ekrishihub/backend/service/OrderArchiveService.java
+package com.ekrishihub.backend.service;
+
+import com.ekrishihub.backend.dto.OrderResponse;
+import com.ekrishihub.backend.repository.OrderArchiveJdbcRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Keeps {@code orders} down to live and recent orders.
+ *
+ * A nightly job moves orders that are settled (PAID, FAILED or CANCELLED) and
+ * older than {@code after-days} into {@code orders_archive}, with their
+ * checkout lines, in chunks of one short transaction each. History reads
+ * go to the archive only when their date range reaches back to the newest
+ * archived order, and merge its page into the hot table's page. That
+ * watermark is one indexed MAX(created_at), re-read at most every
+ * {@code newest-ttl-seconds} (0 = on every read), so an instance picks up a
+ * run made by another one within that window.
+ *
+ * An archived order is read-only history: it no longer answers to the
+ * edit, delete or payment endpoints.
+ */
+@Slf4j
+@Service
+public class OrderArchiveService {
+
+  private static final Comparator<OrderResponse> NEWEST_FIRST =
+      Comparator.comparing(OrderResponse::getCreatedAt)
+          .thenComparing(OrderResponse::getId)
+          .reversed();
+
+  private final OrderArchiveJdbcRepository archiveJdbcRepository;
+  private final TransactionTemplate tx;
+  private final int afterDays;
+  private final int chunkSize;
+  private final int maxChunksPerRun;
+  private final long newestTtlNanos;
+
+  /** created_at of the newest archived order; null = archive empty. */
+  private volatile LocalDateTime newestArchived;
+  /** System.nanoTime() of the last read of {@link #newestArchived}; 0 = never. */
+  private volatile long newestReadAt;
+
+  public OrderArchiveService(
+      OrderArchiveJdbcRepository archiveJdbcRepository,
+      TransactionTemplate tx,
+      @Value("${app.orders.archive.after-days:180}") int afterDays,
+      @Value("${app.orders.archive.chunk-size:500}") int chunkSize,
+      @Value("${app.orders.archive.max-chunks-per-run:2000}") int maxChunksPerRun,
+      @Value("${app.orders.archive.newest-ttl-seconds:30}") long newestTtlSeconds
+  ) {
+    this.archiveJdbcRepository = archiveJdbcRepository;
+    this.tx = tx;
+    this.afterDays = afterDays;
+    this.chunkSize = chunkSize;
+    this.maxChunksPerRun = maxChunksPerRun;
+    this.newestTtlNanos = TimeUnit.SECONDS.toNanos(newestTtlSeconds);
+  }
+
+  /* ----------------------------- MOVE ------------------------------ */
+
+  /** Moves every eligible order (up to the per-run cap); returns how many moved. */
+  @Scheduled(cron = "${app.orders.archive.cron:0 0 4 * * *}")
+  public int archiveSettled() {
+    LocalDateTime before = LocalDateTime.now().minusDays(afterDays);
+    // Taken once: ids above it are all too recent, so no chunk scans or locks them
+    Long maxId = archiveJdbcRepository.maxIdBefore(before);
+    if (maxId == null) return 0;
+    long afterId = 0;
+    int moved = 0;
+    for (int chunk = 0; chunk < maxChunksPerRun; chunk++) {
+      long from = afterId;
+      List<Long> ids = tx.execute(s -> archiveJdbcRepository.moveChunk(from, maxId, before, chunkSize));
+      if (ids == null || ids.isEmpty()) break;
+      moved += ids.size();
+      afterId = ids.get(ids.size() - 1);
+      if (ids.size() < chunkSize) break;
+    }
+    if (moved > 0) {
+      reloadNewestArchived();
+      log.info("Archived {} settled orders created before {}", moved, before.toLocalDate());
+    }
+    return moved;
+  }
+
+  /* ------------------------------ READ ------------------------------ */
+
+  /**
+   * {@code hot} (newest first, at most {@code want} rows needed) with the
+   * archive's matching rows merged in, when the query's lower bound
+   * {@code from} (null = unbounded) reaches archived time and the hot rows do
+   * not already fill the page with newer orders.
+   */
+  public List<OrderResponse> withArchived(List<OrderResponse> hot, int want, LocalDateTime from,
+                                          Supplier<List<OrderResponse>> archived) {
+    LocalDateTime newest = newestArchived();
+    if (newest == null || (from != null && from.isAfter(newest))) return hot;
+    if (hot.size() >= want && hot.get(want - 1).getCreatedAt().isAfter(newest)) return hot;
+
+    List<OrderResponse> merged = new ArrayList<>(hot);
+    merged.addAll(archived.get());
+    merged.sort(NEWEST_FIRST);
+    return merged.size() > want ? new ArrayList<>(merged.subList(0, want)) : merged;
+  }
+
+  private LocalDateTime newestArchived() {
+    long readAt = newestReadAt;
+    if (readAt == 0 || System.nanoTime() - readAt >= newestTtlNanos) {
+      return reloadNewestArchived();
+    }
+    return newestArchived;
+  }
+
+  private LocalDateTime reloadNewestArchived() {
+    LocalDateTime newest = archiveJdbcRepository.newestArchived();
+    newestArchived = newest;
+    newestReadAt = Math.max(1, System.nanoTime());
+    return newest;
+  }
+}
@@ -1,47 +1,75 @@
 // src/main/java/com/ekrishihub/backend/service/OrderService.java
 package com.ekrishihub.backend.service;
 
+import com.ekrishihub.backend.dto.CheckoutRequest;
+import com.ekrishihub.backend.dto.CheckoutResponse;
+import com.ekrishihub.backend.dto.CursorPage;
 import com.ekrishihub.backend.dto.OrderRequest;
 import com.ekrishihub.backend.dto.OrderResponse;
 import com.ekrishihub.backend.dto.PaymentCreateRequest;
 import com.ekrishihub.backend.dto.PaymentCreateResponse;
 import com.ekrishihub.backend.entity.AppUser;
+import com.ekrishihub.backend.entity.CartItem;
 import com.ekrishihub.backend.entity.Order;
+import com.ekrishihub.backend.entity.OrderItem;
 import com.ekrishihub.backend.entity.Product;
+import com.ekrishihub.backend.repository.ArchivedOrderRepository;
+import com.ekrishihub.backend.repository.CartRepository;
+import com.ekrishihub.backend.repository.OrderItemRepository;
+import com.ekrishihub.backend.repository.OrderJdbcRepository;
 import com.ekrishihub.backend.repository.OrderRepository;
 import com.ekrishihub.backend.repository.ProductRepository;
 import com.ekrishihub.backend.repository.UserRepository;
-import com.razorpay.RazorpayClient;
-import com.razorpay.RazorpayException;
+import com.ekrishihub.backend.util.CursorCodec;
 import lombok.RequiredArgsConstructor;
-import org.json.JSONObject;
-import org.springframework.beans.factory.annotation.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.TreeMap;
 
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class OrderService {
 
+  private static final int DEFAULT_PAGE_SIZE = 20;
+  private static final int MAX_PAGE_SIZE = 100;
+
+  /** Order status of a paid order whose stock had already gone; needs a restock or a refund. */
+  public static final String OVERSOLD = "OVERSOLD";
+
   private final OrderRepository orderRepository;
   private final ProductRepository productRepository;
   private final UserRepository userRepository;
-
-  @Value("${razorpay.key_id:}")
-  private String razorpayKeyId;
-
-  @Value("${razorpay.key_secret:}")
-  private String razorpayKeySecret;
+  private final UserIdentityCache userIdentities;
+  private final InventoryService inventoryService;
+  private final CartRepository cartRepository;
+  private final OrderJdbcRepository orderJdbcRepository;
+  private final OrderItemRepository orderItemRepository;
+  private final SalesRollupService salesRollups;
+  private final PaymentGateway paymentGateway;
+  private final TransactionTemplate tx;
+  private final OrderArchiveService orderArchive;
+  private final ArchivedOrderRepository archivedOrderRepository;
 
   /* ========================= CREATE (customer) ========================= */
 
@@ -57,6 +85,9 @@ public class OrderService {
     Product product = productRepository.findById(req.getProductId())
         .orElseThrow(() -> notFound("Product not found"));
 
+    // 409 if another buyer got there first; rolled back with the order on failure
+    inventoryService.reserve(product.getId(), req.getQuantity());
+
     BigDecimal price = BigDecimal.valueOf(product.getPrice() != null ? product.getPrice() : 0.0);
     BigDecimal qty   = BigDecimal.valueOf(req.getQuantity());
     BigDecimal total = price.multiply(qty);
@@ -74,37 +105,176 @@ public class OrderService {
     }
 
     Order saved = orderRepository.save(o);
+    salesRollups.record(null, salesRollups.snapshot(saved, List.of()));
     return toResponse(saved, product);
   }
 
+  /**
+   * Turns the customer's whole cart into one order per farmer, each with one
+   * line per product, in a single transaction. Every order carries its
+   * farmer's id, so it shows up in that farmer's feed; the orders can be paid
+   * together with {@link #createPaymentForOrders}.
+   *
+   * Statements issued:
+   * - one query for the cart lines and their products
+   * - one conditional stock UPDATE per product
+   * - one order INSERT per farmer
+   * - one batched INSERT for all lines
+   * - one bulk DELETE to clear the cart
+   *
+   * Prices are snapshotted onto the lines. Any failure (empty cart, 409 on
+   * stock) leaves the cart and stock untouched.
+   */
+  @Transactional
+  public CheckoutResponse checkoutForCustomerEmail(String customerEmail, CheckoutRequest req) {
+    if (req == null || req.getAddress() == null || req.getAddress().isBlank()) {
+      throw badRequest("address is required");
+    }
+    if (customerEmail == null || customerEmail.isBlank()) throw unauthorized("Unauthorized");
+    AppUser customer = userRepository.getReferenceById(resolveUserIdByEmail(customerEmail));
+
+    List<CartItem> cart = cartRepository.findWithProductsByUser(customer);
+    if (cart.isEmpty()) throw badRequest("Cart is empty");
+
+    // Same product added twice -> one line
+    Map<Long, OrderItem> lines = new LinkedHashMap<>();
+    for (CartItem c : cart) {
+      if (c.getQuantity() == null || c.getQuantity() <= 0) continue;
+      Product p = c.getProduct();
+      OrderItem line = lines.computeIfAbsent(p.getId(), id -> {
+        OrderItem li = new OrderItem();
+        li.setProduct(p);
+        li.setQuantity(0);
+        li.setPrice(p.getPrice() != null ? p.getPrice() : 0.0);
+        return li;
+      });
+      line.setQuantity(line.getQuantity() + c.getQuantity());
+    }
+    if (lines.isEmpty()) throw badRequest("Cart is empty");
+
+    // Ascending product id so concurrent checkouts lock rows in the same order
+    lines.values().stream()
+        .sorted((a, b) -> Long.compare(a.getProduct().getId(), b.getProduct().getId()))
+        .forEach(li -> inventoryService.reserve(li.getProduct().getId(), li.getQuantity()));
+
+    // One order per farmer, in cart order (products without an owner share one)
+    Map<Long, List<OrderItem>> byFarmer = new LinkedHashMap<>();
+    for (OrderItem li : lines.values()) {
+      byFarmer.computeIfAbsent(li.getProduct().getOwnerId(), k -> new ArrayList<>()).add(li);
+    }
+
+    String address = req.getAddress().trim();
+    List<OrderResponse> orders = new ArrayList<>(byFarmer.size());
+    List<OrderItem> allItems = new ArrayList<>(lines.size());
+    List<CheckoutResponse.Line> out = new ArrayList<>(lines.size());
+    for (Map.Entry<Long, List<OrderItem>> group : byFarmer.entrySet()) {
+      List<OrderItem> items = group.getValue();
+      BigDecimal total = BigDecimal.ZERO;
+      int units = 0;
+      for (OrderItem li : items) {
+        total = total.add(BigDecimal.valueOf(li.getPrice()).multiply(BigDecimal.valueOf(li.getQuantity())));
+        units += li.getQuantity();
+      }
+      Product first = items.get(0).getProduct();
+
+      Order o = new Order();
+      o.setCustomerId(customer.getId());
+      o.setProductId(first.getId());               // headline product; the lines hold the rest
+      o.setQuantity(units);
+      o.setAddress(address);
+      o.setTotalAmount(total.doubleValue());
+      o.setPaymentStatus("PENDING");
+      o.setOrderStatus("CREATED");
+      o.setFarmerId(group.getKey());
+      Order saved = orderRepository.save(o);
+
+      items.forEach(li -> li.setOrder(saved));
+      allItems.addAll(items);
+      salesRollups.record(null, salesRollups.snapshot(saved, items));
+      orders.add(toResponse(saved, first));
+      for (OrderItem li : items) {
+        out.add(CheckoutResponse.Line.builder()
+            .orderId(saved.getId())
+            .productId(li.getProduct().getId())
+            .productName(li.getProduct().getName())
+            .quantity(li.getQuantity())
+            .price(li.getPrice())
+            .lineTotal(BigDecimal.valueOf(li.getPrice()).multiply(BigDecimal.valueOf(li.getQuantity())).doubleValue())
+            .build());
+      }
+    }
+    orderJdbcRepository.insertItems(allItems);
+    cartRepository.deleteByUser(customer);
+
+    return CheckoutResponse.builder()
+        .orders(orders)
+        .items(out)
+        .build();
+  }
+
   /* ========================= READ ========================= */
 
+  @Transactional(readOnly = true)
   public List<OrderResponse> listOrdersForCustomerEmail(String customerEmail) {
     Long customerId = resolveUserIdByEmail(customerEmail);
-    List<Order> orders = orderRepository.findByCustomerId(customerId);
-
-    Set<Long> productIds = orders.stream().map(Order::getProductId).collect(Collectors.toSet());
-    Map<Long, Product> productMap = productRepository.findAllById(productIds).stream()
-        .collect(Collectors.toMap(Product::getId, p -> p));
+    return orderArchive.withArchived(orderRepository.findResponsesByCustomerId(customerId), Integer.MAX_VALUE,
+        null, () -> archivedOrderRepository.findResponsesByCustomerId(customerId));
+  }
 
-    return orders.stream()
-        .map(o -> toResponse(o, productMap.get(o.getProductId())))
-        .collect(Collectors.toList());
+  /**
+   * Keyset page of the customer's orders, newest first, product joined in.
+   * Cost depends on the page size, not on how many orders the customer has.
+   */
+  @Transactional(readOnly = true)
+  public CursorPage<OrderResponse> pageOrdersForCustomerEmail(String customerEmail, String cursor, Integer limit,
+                                                              String paymentStatus, String orderStatus,
+                                                              LocalDate from, LocalDate to) {
+    Long customerId = resolveUserIdByEmail(customerEmail);
+    int size = pageSize(limit);
+    Seek seek = Seek.decode(cursor);
+    String pay = upperOrNull(paymentStatus);
+    String status = upperOrNull(orderStatus);
+    LocalDateTime lower = startOf(from);
+    LocalDateTime upper = startOf(to == null ? null : to.plusDays(1));
+    List<OrderResponse> rows = orderRepository.pageByCustomer(customerId,
+        pay, status, lower, upper, seek.createdAt(), seek.id(), PageRequest.of(0, size + 1));
+    rows = orderArchive.withArchived(rows, size + 1, lower, () -> archivedOrderRepository.pageByCustomer(customerId,
+        pay, status, lower, upper, seek.createdAt(), seek.id(), PageRequest.of(0, size + 1)));
+    return toPage(rows, size);
   }
 
+  /**
+   * Every order for the farmer's products, newest first, in one indexed query on
+   * {@code orders.farmer_id} (set at placement) with the product joined in;
+   * older multi-farmer checkouts without a farmer_id match through their lines.
+   */
+  @Transactional(readOnly = true)
   public List<OrderResponse> listOrdersForFarmerEmail(String farmerEmail) {
     Long farmerId = resolveUserIdByEmail(farmerEmail);
-    List<Product> myProducts = productRepository.findByOwnerId(farmerId);
-    Set<Long> myProductIds = myProducts.stream().map(Product::getId).collect(Collectors.toSet());
-    if (myProductIds.isEmpty()) return List.of();
-
-    List<Order> orders = orderRepository.findByProductIdIn(myProductIds);
-    Map<Long, Product> productMap = myProducts.stream()
-        .collect(Collectors.toMap(Product::getId, p -> p));
+    return orderArchive.withArchived(orderRepository.findResponsesByFarmerId(farmerId), Integer.MAX_VALUE,
+        null, () -> archivedOrderRepository.findResponsesByFarmerId(farmerId));
+  }
 
-    return orders.stream()
-        .map(o -> toResponse(o, productMap.get(o.getProductId())))
-        .collect(Collectors.toList());
+  /**
+   * Keyset page of the farmer's orders, newest first. Filters are optional;
+   * {@code from}/{@code to} are inclusive calendar days.
+   */
+  @Transactional(readOnly = true)
+  public CursorPage<OrderResponse> pageOrdersForFarmerEmail(String farmerEmail, String cursor, Integer limit,
+                                                            String paymentStatus, String orderStatus,
+                                                            LocalDate from, LocalDate to) {
+    Long farmerId = resolveUserIdByEmail(farmerEmail);
+    int size = pageSize(limit);
+    Seek seek = Seek.decode(cursor);
+    String pay = upperOrNull(paymentStatus);
+    String status = upperOrNull(orderStatus);
+    LocalDateTime lower = startOf(from);
+    LocalDateTime upper = startOf(to == null ? null : to.plusDays(1));
+    List<OrderResponse> rows = orderRepository.pageByFarmer(farmerId,
+        pay, status, lower, upper, seek.createdAt(), seek.id(), PageRequest.of(0, size + 1));
+    rows = orderArchive.withArchived(rows, size + 1, lower, () -> archivedOrderRepository.pageByFarmer(farmerId,
+        pay, status, lower, upper, seek.createdAt(), seek.id(), PageRequest.of(0, size + 1)));
+    return toPage(rows, size);
   }
 
   /* ========================= UPDATE / DELETE (customer) ========================= */
@@ -123,10 +293,17 @@ public class OrderService {
       throw badRequest("Cannot edit a paid order");
     }
 
+    SalesRollupService.Contribution before = salesRollups.snapshot(o, List.of());
     boolean recompute = false;
 
     if (req != null && req.getQuantity() != null) {
       if (req.getQuantity() <= 0) throw badRequest("quantity must be > 0");
+      if (!orderItemRepository.findByOrderId(o.getId()).isEmpty()) {
+        throw badRequest("Quantity of a multi-item order cannot be changed");
+      }
+      if (InventoryService.holdsStock(o)) {
+        inventoryService.adjust(o.getProductId(), o.getQuantity(), req.getQuantity());
+      }
       o.setQuantity(req.getQuantity());
       recompute = true;
     }
@@ -140,6 +317,7 @@ public class OrderService {
       BigDecimal price = BigDecimal.valueOf(p.getPrice() != null ? p.getPrice() : 0.0);
       BigDecimal qty   = BigDecimal.valueOf(o.getQuantity());
       o.setTotalAmount(price.multiply(qty).doubleValue());
+      salesRollups.record(before, salesRollups.snapshot(o, List.of()));
     }
 
     Order saved = orderRepository.save(o);
@@ -159,203 +337,423 @@ public class OrderService {
     if ("PAID".equalsIgnoreCase(String.valueOf(o.getPaymentStatus()))) {
       throw badRequest("Cannot delete a paid order");
     }
+    List<OrderItem> items = orderItemRepository.findByOrderId(orderId);
+    if (InventoryService.holdsStock(o)) {
+      stockLines(o, items).forEach(inventoryService::release);
+    }
+    salesRollups.record(salesRollups.snapshot(o, items), null);
+    orderItemRepository.deleteByOrderId(orderId);
     orderRepository.deleteById(orderId);
   }
 
   /* ========================= PAYMENT (single) ========================= */
 
-  @Transactional
+  /**
+   * Creates (or reuses) the gateway order for one local order. No DB connection
+   * is held across the gateway round trip: the order is checked in one short
+   * transaction, the gateway is called with none, and the id is recorded
+   * under a row lock in a second short one.
+   */
   public PaymentCreateResponse createPaymentForOrder(PaymentCreateRequest req, Authentication auth) {
     if (req == null || req.getOrderId() == null) throw badRequest("orderId is required");
+    String email = auth != null ? auth.getName() : null;
 
-    Long userId = resolveUserIdByEmail(auth != null ? auth.getName() : null);
-    Order order = orderRepository.findById(req.getOrderId())
-        .orElseThrow(() -> notFound("Order not found"));
-    if (!order.getCustomerId().equals(userId)) {
-      throw unauthorized("Not your order");
-    }
+    Order order = tx.execute(s -> {
+      Long userId = resolveUserIdByEmail(email);
+      Order o = orderRepository.findById(req.getOrderId())
+          .orElseThrow(() -> notFound("Order not found"));
+      if (!o.getCustomerId().equals(userId)) {
+        throw unauthorized("Not your order");
+      }
+      return o;
+    });
 
-    // If already has a Razorpay order and not FAILED -> reuse it
-    if (order.getRazorpayOrderId() != null &&
-        !"FAILED".equalsIgnoreCase(String.valueOf(order.getPaymentStatus()))) {
-      return PaymentCreateResponse.builder()
-          .orderId(order.getId())
-          .razorpayOrderId(order.getRazorpayOrderId())
-          .amount(order.getTotalAmount())
-          .currency("INR")
-          .key(razorpayKeyId)
-          .build();
-    }
+    PaymentCreateResponse reused = reusablePayment(order);
+    if (reused != null) return handedOutAgain(reused);
 
     ensureGatewayConfigured();
+    PaymentGateway.GatewayOrder gw = paymentGateway.createOrder(
+        toPaise(order.getTotalAmount()), "INR", "order_" + order.getId());
+
+    return tx.execute(s -> {
+      Order o = orderRepository.findByIdForUpdate(order.getId())
+          .orElseThrow(() -> notFound("Order not found"));
+      // A concurrent request got there first: hand out its gateway order, ours expires unused
+      PaymentCreateResponse winner = reusablePayment(o);
+      if (winner != null) return winner;
+
+      // Retrying a failed payment: the stock was released when it failed, take it again
+      if ("FAILED".equalsIgnoreCase(String.valueOf(o.getPaymentStatus()))) {
+        applyPaymentStatus(o, "PENDING");
+      }
+      o.setRazorpayOrderId(gw.id());
+      o.setPaymentStartedAt(LocalDateTime.now());
+      if (o.getPaymentStatus() == null || o.getPaymentStatus().isBlank()) {
+        o.setPaymentStatus("PENDING");
+      }
+      orderRepository.save(o);
+      return paymentResponse(o.getId(), gw.id(), o.getTotalAmount());
+    });
+  }
 
-    try {
-      BigDecimal rupees = BigDecimal.valueOf(order.getTotalAmount());
-      int paise = rupees.multiply(BigDecimal.valueOf(100))
-                        .setScale(0, RoundingMode.HALF_UP)
-                        .intValueExact();
+  /* ========================= PAYMENT (bundle, optional) ========================= */
 
-      RazorpayClient client = new RazorpayClient(razorpayKeyId, razorpayKeySecret);
+  /** One gateway order for several local orders; same three steps as {@link #createPaymentForOrder}. */
+  public PaymentCreateResponse createPaymentForOrders(PaymentCreateRequest req, Authentication auth) {
+    if (req == null || req.getOrderIds() == null || req.getOrderIds().isEmpty()) {
+      throw badRequest("orderIds are required");
+    }
+    String email = auth != null ? auth.getName() : null;
+
+    List<Order> orders = tx.execute(s -> {
+      Long userId = resolveUserIdByEmail(email);
+      List<Order> found = orderRepository.findAllById(req.getOrderIds());
+      if (found.isEmpty()) throw notFound("Orders not found");
+      for (Order o : found) {
+        checkBundleable(o, userId);
+      }
+      return found;
+    });
+    Long userId = orders.get(0).getCustomerId();
+    double total = orders.stream().mapToDouble(Order::getTotalAmount).sum();
 
-      JSONObject orderRequest = new JSONObject();
-      orderRequest.put("amount", paise);
-      orderRequest.put("currency", "INR");
-      orderRequest.put("receipt", "order_" + order.getId());
+    PaymentCreateResponse reused = reusableBundlePayment(orders, total);
+    if (reused != null) return handedOutAgain(reused);
 
-      com.razorpay.Order rpOrder = client.orders.create(orderRequest);
-      String rpOrderId = rpOrder.get("id").toString();
+    ensureGatewayConfigured();
+    PaymentGateway.GatewayOrder gw = paymentGateway.createOrder(
+        toPaise(total), "INR", "bundle_" + userId + "_" + System.currentTimeMillis());
+
+    List<Long> ids = orders.stream().map(Order::getId).toList();
+    return tx.execute(s -> {
+      List<Order> locked = orderRepository.findAllByIdForUpdate(ids);
+      for (Order o : locked) {
+        checkBundleable(o, userId);   // may have been paid while we were at the gateway
+      }
+      // A concurrent request got there first: hand out its gateway order, ours expires unused
+      PaymentCreateResponse winner = reusableBundlePayment(locked, total);
+      if (winner != null) return winner;
 
-      order.setRazorpayOrderId(rpOrderId);
-      if (order.getPaymentStatus() == null || order.getPaymentStatus().isBlank()) {
-        order.setPaymentStatus("PENDING");
+      // store same rp order id on each local order
+      LocalDateTime now = LocalDateTime.now();
+      for (Order o : locked) {
+        if ("FAILED".equalsIgnoreCase(String.valueOf(o.getPaymentStatus()))) {
+          applyPaymentStatus(o, "PENDING");
+        }
+        o.setRazorpayOrderId(gw.id());
+        o.setPaymentStartedAt(now);
+        if (o.getPaymentStatus() == null || o.getPaymentStatus().isBlank()) {
+          o.setPaymentStatus("PENDING");
+        }
       }
-      orderRepository.save(order);
+      orderRepository.saveAll(locked);
+      return paymentResponse(null, gw.id(), total);  // bundle: not a single local id
+    });
+  }
 
-      return PaymentCreateResponse.builder()
-          .orderId(order.getId())
-          .razorpayOrderId(rpOrderId)
-          .amount(order.getTotalAmount())
-          .currency("INR")
-          .key(razorpayKeyId)
-          .build();
-    } catch (RazorpayException ex) {
-      throw new ResponseStatusException(HttpStatus.BAD_GATEWAY, "Unable to create payment order", ex);
+  /**
+   * The browser reports that checkout finished for the caller's orders. Its
+   * word is not taken: each gateway order is looked up at the gateway and
+   * only a captured payment is applied, through
+   * {@link #applyGatewayStatuses}. A declined or dismissed checkout changes
+   * nothing; the order stays open for a retry, and the reconciler abandons
+   * it eventually. Payment state is otherwise set only by the webhook and
+   * the reconciler.
+   */
+  public void updatePaymentStatusForOrders(PaymentCreateRequest req, Authentication auth) {
+    if (req == null || req.getOrderIds() == null || req.getOrderIds().isEmpty()) {
+      throw badRequest("orderIds are required");
     }
-  }
+    String email = auth != null ? auth.getName() : null;
 
-  @Transactional
-  public void updatePaymentStatus(Long orderId, String paymentId, String status) {
-    Order order = orderRepository.findById(orderId)
-        .orElseThrow(() -> notFound("Order not found"));
+    Set<String> gatewayIds = tx.execute(s -> {
+      Long userId = resolveUserIdByEmail(email);
+      List<Order> orders = orderRepository.findAllById(req.getOrderIds());
+      if (orders.isEmpty()) throw notFound("Orders not found");
+      Set<String> ids = new LinkedHashSet<>();
+      for (Order o : orders) {
+        if (!o.getCustomerId().equals(userId)) {
+          throw unauthorized("Includes order not owned by you: " + o.getId());
+        }
+        if (o.getRazorpayOrderId() != null && !"PAID".equalsIgnoreCase(String.valueOf(o.getPaymentStatus()))) {
+          ids.add(o.getRazorpayOrderId());
+        }
+      }
+      return ids;
+    });
+    if (gatewayIds.isEmpty()) return;
 
-    if (paymentId != null && !paymentId.isBlank()) {
-      order.setRazorpayPaymentId(paymentId);
-    }
-    String normalized = status == null ? "PENDING" : status.trim().toUpperCase();
-    switch (normalized) {
-      case "SUCCESS":
-      case "PAID":
-        order.setPaymentStatus("PAID");
-        break;
-      case "FAILED":
-        order.setPaymentStatus("FAILED");
-        break;
-      default:
-        order.setPaymentStatus(normalized);
+    ensureGatewayConfigured();
+    List<GatewayStatus> paid = new ArrayList<>();
+    for (String id : gatewayIds) {
+      PaymentGateway.GatewayOrderState state = paymentGateway.fetchOrderState(id);
+      if (state.paid()) paid.add(new GatewayStatus(id, state.paymentId(), "PAID"));
     }
-    orderRepository.save(order);
+    if (!paid.isEmpty()) tx.execute(s -> applyGatewayStatuses(paid));
   }
 
-  /* ========================= PAYMENT (bundle, optional) ========================= */
-
+  /* ========================= PAYMENT (gateway-driven) ========================= */
+
+  /** A status reported by the gateway for everything attached to one gateway order. */
+  public record GatewayStatus(String razorpayOrderId, String paymentId, String status) {}
+
+  /**
+   * Applies gateway-reported statuses in one transaction: one indexed, locked
+   * lookup for all affected orders (bundles share a gateway id), stock and
+   * rollups moved as for {@link #applyPaymentStatus}, then one
+   * {@code UPDATE ... WHERE razorpay_order_id = ?} per gateway order, sent as
+   * a single JDBC batch. PAID is final, so a late or replayed failure for an
+   * order already paid is ignored. A payment captured for an order that had
+   * already failed and lost its stock is never refused: the order becomes
+   * PAID with whatever stock is left and is flagged {@link #OVERSOLD}.
+   * Returns the number of orders changed.
+   *
+   * The rows are written with plain JDBC; the entities loaded here are left
+   * untouched, so run this in its own transaction.
+   */
   @Transactional
-  public PaymentCreateResponse createPaymentForOrders(PaymentCreateRequest req, Authentication auth) {
-    if (req == null || req.getOrderIds() == null || req.getOrderIds().isEmpty()) {
-      throw badRequest("orderIds are required");
+  public int applyGatewayStatuses(Collection<GatewayStatus> updates) {
+    Map<String, GatewayStatus> byGatewayId = new HashMap<>();
+    for (GatewayStatus u : updates) {
+      if (u.razorpayOrderId() != null) {
+        byGatewayId.put(u.razorpayOrderId(), new GatewayStatus(
+            u.razorpayOrderId(), u.paymentId(), normalizePaymentStatus(u.status())));
+      }
     }
-    Long userId = resolveUserIdByEmail(auth != null ? auth.getName() : null);
+    if (byGatewayId.isEmpty()) return 0;
+
+    List<Order> changing = new ArrayList<>();
+    for (Order o : orderRepository.findByRazorpayOrderIdInForUpdate(byGatewayId.keySet())) {
+      String next = byGatewayId.get(o.getRazorpayOrderId()).status();
+      if (!"PAID".equalsIgnoreCase(String.valueOf(o.getPaymentStatus()))
+          && !next.equals(o.getPaymentStatus())) {
+        changing.add(o);
+      }
+    }
+    if (changing.isEmpty()) return 0;
 
-    List<Order> orders = orderRepository.findAllById(req.getOrderIds());
-    if (orders.isEmpty()) throw notFound("Orders not found");
+    Map<Long, List<OrderItem>> itemsByOrder = new HashMap<>();
+    for (OrderItem li : orderItemRepository.findByOrderIdIn(changing.stream().map(Order::getId).toList())) {
+      itemsByOrder.computeIfAbsent(li.getOrder().getId(), k -> new ArrayList<>()).add(li);
+    }
 
-    // ensure all belong to this customer and are unpaid
-    for (Order o : orders) {
-      if (!o.getCustomerId().equals(userId)) {
-        throw unauthorized("Includes order not owned by you: " + o.getId());
-      }
-      if ("PAID".equalsIgnoreCase(String.valueOf(o.getPaymentStatus()))) {
-        throw badRequest("Order already paid: " + o.getId());
+    List<SalesRollupService.Contribution> before = new ArrayList<>(changing.size());
+    List<SalesRollupService.Contribution> after = new ArrayList<>(changing.size());
+    Set<String> touched = new HashSet<>();
+    List<Long> oversold = new ArrayList<>();
+    for (Order o : changing) {
+      String next = byGatewayId.get(o.getRazorpayOrderId()).status();
+      List<OrderItem> items = itemsByOrder.getOrDefault(o.getId(), List.of());
+      boolean heldBefore = InventoryService.holdsStock(o);
+      boolean heldAfter = InventoryService.holdsStock(next);
+      if (heldBefore && !heldAfter) {
+        stockLines(o, items).forEach(inventoryService::release);
+      } else if (!heldBefore && heldAfter && retakeStock(o, next, items)) {
+        oversold.add(o.getId());
       }
+      before.add(salesRollups.snapshot(o, items));
+      after.add(salesRollups.snapshot(o, items, next));
+      touched.add(o.getRazorpayOrderId());
     }
+    salesRollups.recordAll(before, after);
 
-    double total = orders.stream().mapToDouble(Order::getTotalAmount).sum();
+    List<OrderJdbcRepository.PaymentStatusUpdate> rows = new ArrayList<>(touched.size());
+    for (String id : touched) {
+      GatewayStatus u = byGatewayId.get(id);
+      rows.add(new OrderJdbcRepository.PaymentStatusUpdate(id, u.paymentId(), u.status()));
+    }
+    orderJdbcRepository.updatePaymentStatuses(rows);
+    if (!oversold.isEmpty()) orderRepository.updateOrderStatus(oversold, OVERSOLD);
+    return changing.size();
+  }
 
-    ensureGatewayConfigured();
+  /* ========================= Helpers ========================= */
 
-    try {
-      BigDecimal rupees = BigDecimal.valueOf(total);
-      int paise = rupees.multiply(BigDecimal.valueOf(100))
-                        .setScale(0, RoundingMode.HALF_UP)
-                        .intValueExact();
+  /** Position after the last row of the previous page: (createdAt, id). */
+  private record Seek(LocalDateTime createdAt, Long id) {
+    static Seek decode(String cursor) {
+      if (cursor == null || cursor.isBlank()) return new Seek(null, null);
+      String[] parts = CursorCodec.decode(cursor, 2);
+      try {
+        return new Seek(LocalDateTime.parse(parts[0]), Long.valueOf(parts[1]));
+      } catch (RuntimeException ex) {
+        throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor");
+      }
+    }
+  }
 
-      RazorpayClient client = new RazorpayClient(razorpayKeyId, razorpayKeySecret);
+  /** {@code rows} was fetched with one extra row; that row only signals a next page. */
+  private static CursorPage<OrderResponse> toPage(List<OrderResponse> rows, int size) {
+    String next = null;
+    if (rows.size() > size) {
+      rows = rows.subList(0, size);
+      OrderResponse last = rows.get(size - 1);
+      next = CursorCodec.encode(last.getCreatedAt(), last.getId());
+    }
+    return new CursorPage<>(rows, next);
+  }
 
-      JSONObject orderRequest = new JSONObject();
-      orderRequest.put("amount", paise);
-      orderRequest.put("currency", "INR");
-      orderRequest.put("receipt", "bundle_" + userId + "_" + System.currentTimeMillis());
+  private static int pageSize(Integer limit) {
+    return (limit == null) ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+  }
 
-      com.razorpay.Order rpOrder = client.orders.create(orderRequest);
-      String rpOrderId = rpOrder.get("id").toString();
+  private static String upperOrNull(String s) {
+    return (s == null || s.isBlank()) ? null : s.trim().toUpperCase();
+  }
 
-      // store same rp order id on each local order
-      for (Order o : orders) {
-        o.setRazorpayOrderId(rpOrderId);
-        if (o.getPaymentStatus() == null || o.getPaymentStatus().isBlank()) {
-          o.setPaymentStatus("PENDING");
-        }
-      }
-      orderRepository.saveAll(orders);
+  private static LocalDateTime startOf(LocalDate day) {
+    return day == null ? null : day.atStartOfDay();
+  }
+
+  /**
+   * Sets the normalised payment status and moves stock and sales rollups
+   * with it. An order that fails gives its quantity back. One that comes
+   * back from FAILED (retry, late success) has to take it again, and gets
+   * 409 if the stock is gone, unless it comes back PAID: see
+   * {@link #retakeStock}. PENDING -> PAID moves its amount from the
+   * pending to the paid rollup bucket.
+   */
+  private void applyPaymentStatus(Order o, String status) {
+    String next = normalizePaymentStatus(status);
+    if (next.equals(o.getPaymentStatus())) return;
+
+    List<OrderItem> items = orderItemRepository.findByOrderId(o.getId());
+    SalesRollupService.Contribution before = salesRollups.snapshot(o, items);
+    moveStock(o, next, items);
+    salesRollups.record(before, salesRollups.snapshot(o, items));
+  }
 
-      return PaymentCreateResponse.builder()
-          .orderId(null) // bundle: not a single local id
-          .razorpayOrderId(rpOrderId)
-          .amount(total)
-          .currency("INR")
-          .key(razorpayKeyId)
-          .build();
-    } catch (RazorpayException ex) {
-      throw new ResponseStatusException(HttpStatus.BAD_GATEWAY, "Unable to create payment order", ex);
+  /** Sets {@code next} and takes or returns the order's stock if that changes whether it holds any. */
+  private void moveStock(Order o, String next, List<OrderItem> items) {
+    boolean heldBefore = InventoryService.holdsStock(o);
+    o.setPaymentStatus(next);
+    boolean heldAfter = InventoryService.holdsStock(o);
+    if (heldBefore && !heldAfter) {
+      stockLines(o, items).forEach(inventoryService::release);
+    } else if (!heldBefore && heldAfter && retakeStock(o, next, items)) {
+      o.setOrderStatus(OVERSOLD);
     }
   }
 
-  @Transactional
-  public void updatePaymentStatusForOrders(PaymentCreateRequest req, Authentication auth) {
-    if (req == null || req.getOrderIds() == null || req.getOrderIds().isEmpty()) {
-      throw badRequest("orderIds are required");
+  /**
+   * Takes a failed order's stock again; returns true if some of it was gone.
+   * A paid order has the customer's money, so it takes what is left rather
+   * than failing, and the shortfall is logged for a restock or refund.
+   */
+  private boolean retakeStock(Order o, String next, List<OrderItem> items) {
+    if (!"PAID".equals(next)) {
+      stockLines(o, items).forEach(inventoryService::reserve);
+      return false;
     }
-    Long userId = resolveUserIdByEmail(auth != null ? auth.getName() : null);
+    int missing = 0;
+    for (Map.Entry<Long, Integer> line : stockLines(o, items).entrySet()) {
+      missing += inventoryService.reserveAvailable(line.getKey(), line.getValue());
+    }
+    if (missing > 0) {
+      log.error("Order {} was paid (gateway order {}) after its stock was gone: {} units short",
+          o.getId(), o.getRazorpayOrderId(), missing);
+    }
+    return missing > 0;
+  }
 
-    List<Order> orders = orderRepository.findAllById(req.getOrderIds());
-    if (orders.isEmpty()) throw notFound("Orders not found");
+  private static String normalizePaymentStatus(String status) {
+    String normalized = status == null ? "PENDING" : status.trim().toUpperCase();
+    return switch (normalized) {
+      case "SUCCESS", "PAID", "CAPTURED" -> "PAID";
+      default -> normalized;
+    };
+  }
+
+  /** Product id -> units the order holds: its checkout lines, or the order itself if it has none. */
+  private static Map<Long, Integer> stockLines(Order o, List<OrderItem> items) {
+    Map<Long, Integer> out = new TreeMap<>();   // ascending id, same lock order as checkout
+    for (OrderItem li : items) {
+      out.merge(li.getProduct().getId(), li.getQuantity(), Integer::sum);
+    }
+    if (out.isEmpty()) out.put(o.getProductId(), o.getQuantity());
+    return out;
+  }
+
+  private void ensureGatewayConfigured() {
+    if (!paymentGateway.isConfigured()) {
+      throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Payment gateway not configured");
+    }
+  }
 
-    String normalized = req.getStatus() == null ? "PENDING" : req.getStatus().trim().toUpperCase();
+  /** The order's existing gateway order, unless it has none or its payment failed. */
+  private PaymentCreateResponse reusablePayment(Order o) {
+    if (o.getRazorpayOrderId() == null
+        || "FAILED".equalsIgnoreCase(String.valueOf(o.getPaymentStatus()))) {
+      return null;
+    }
+    return paymentResponse(o.getId(), o.getRazorpayOrderId(), o.getTotalAmount());
+  }
 
+  /**
+   * Bundle counterpart of {@link #reusablePayment}: the open gateway order if
+   * it covers exactly {@code orders}, null if none of them has one. Any other
+   * open gateway order would be orphaned by overwriting it, and could still
+   * be paid on top of the new one, so that is refused with 409.
+   */
+  private PaymentCreateResponse reusableBundlePayment(List<Order> orders, double total) {
+    Set<String> open = new HashSet<>();
+    boolean allOpen = true;
     for (Order o : orders) {
-      if (!o.getCustomerId().equals(userId)) {
-        throw unauthorized("Includes order not owned by you: " + o.getId());
+      if (reusablePayment(o) != null) {
+        open.add(o.getRazorpayOrderId());
+      } else {
+        allOpen = false;
       }
-      if (req.getPaymentId() != null && !req.getPaymentId().isBlank()) {
-        o.setRazorpayPaymentId(req.getPaymentId());
-      }
-      switch (normalized) {
-        case "SUCCESS":
-        case "PAID":
-          o.setPaymentStatus("PAID");
-          break;
-        case "FAILED":
-          o.setPaymentStatus("FAILED");
-          break;
-        default:
-          o.setPaymentStatus(normalized);
+    }
+    if (open.isEmpty()) return null;
+    if (allOpen && open.size() == 1) {
+      String id = open.iterator().next();
+      if (orderRepository.countByRazorpayOrderId(id) == orders.size()) {
+        return paymentResponse(null, id, total);
       }
     }
-    orderRepository.saveAll(orders);
+    throw new ResponseStatusException(HttpStatus.CONFLICT,
+        "Some of these orders already have a payment in progress: " + open);
   }
 
-  /* ========================= Helpers ========================= */
+  /**
+   * A customer coming back to an open gateway order may be about to pay it,
+   * so the reconciler's abandonment clock starts over.
+   */
+  private PaymentCreateResponse handedOutAgain(PaymentCreateResponse r) {
+    orderRepository.touchPaymentStarted(r.getRazorpayOrderId(), LocalDateTime.now());
+    return r;
+  }
 
-  private void ensureGatewayConfigured() {
-    if (razorpayKeyId == null || razorpayKeyId.isBlank()
-        || razorpayKeySecret == null || razorpayKeySecret.isBlank()) {
-      throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Payment gateway not configured");
+  private PaymentCreateResponse paymentResponse(Long orderId, String gatewayOrderId, Double amount) {
+    return PaymentCreateResponse.builder()
+        .orderId(orderId)
+        .razorpayOrderId(gatewayOrderId)
+        .amount(amount)
+        .currency("INR")
+        .key(paymentGateway.keyId())
+        .build();
+  }
+
+  private void checkBundleable(Order o, Long userId) {
+    if (!o.getCustomerId().equals(userId)) {
+      throw unauthorized("Includes order not owned by you: " + o.getId());
     }
+    if ("PAID".equalsIgnoreCase(String.valueOf(o.getPaymentStatus()))) {
+      throw badRequest("Order already paid: " + o.getId());
+    }
+  }
+
+  private static long toPaise(double rupees) {
+    return BigDecimal.valueOf(rupees).multiply(BigDecimal.valueOf(100))
+        .setScale(0, RoundingMode.HALF_UP)
+        .longValueExact();
   }
 
   private Long resolveUserIdByEmail(String email) {
     if (email == null || email.isBlank()) throw unauthorized("Unauthorized");
-    return userRepository.findByEmailIgnoreCase(email)
-        .map(AppUser::getId)
+    return userIdentities.find(email)
+        .map(UserIdentityCache.Identity::id)
         .orElseThrow(() -> unauthorized("User not found"));
   }
 
@@ -366,12 +764,15 @@ public class OrderService {
     return OrderResponse.builder()
         .id(o.getId())
         .productId(o.getProductId())
+        .farmerId(o.getFarmerId())
+        .customerId(o.getCustomerId())
         .productName(productName)
         .productCategory(category)
         .quantity(o.getQuantity())
         .totalAmount(o.getTotalAmount())
         .address(o.getAddress())
         .paymentStatus(o.getPaymentStatus())
+        .orderStatus(o.getOrderStatus())
         .razorpayOrderId(o.getRazorpayOrderId())
         .razorpayPaymentId(o.getRazorpayPaymentId())
         .createdAt(o.getCreatedAt())
@@ -2,58 +2,162 @@ package com.ekrishihub.backend.service;
 
 import com.ekrishihub.backend.entity.EmailOtp;
 import com.ekrishihub.backend.repository.EmailOtpRepository;
-import lombok.RequiredArgsConstructor;
+import com.ekrishihub.backend.util.HmacSha256;
+import com.ekrishihub.backend.util.TimingWheel;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
-import java.time.*; import java.util.concurrent.ThreadLocalRandom;
+import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
+import java.time.*;
+import java.util.concurrent.ConcurrentHashMap;
 
-@Service @RequiredArgsConstructor
+/**
+ * Email OTPs.
+ *
+ * Codes are stored as HMAC-SHA256(server key, email + code): a lookup is a
+ * microsecond hash instead of a BCrypt round, and a leaked row is useless
+ * without the key. The live codes, their attempt counts and resend cooldowns
+ * are held in memory and expired by a {@link TimingWheel}; {@code email_otps}
+ * is written through (one statement per change) and read back at startup.
+ * It is also the copy shared between instances: when a verify finds no code
+ * in memory, or one the input does not match, it re-reads the email's row
+ * (one unique-index lookup) and checks against that, so a code sent through
+ * another instance, or a newer one, still verifies. Rows left behind by
+ * expired codes are deleted in batches.
+ */
+@Slf4j
+@Service
 public class OtpService {
   private final EmailOtpRepository otpRepo;
   private final MailService mailService;
-  private final PasswordEncoder bcrypt;
+  private final HmacSha256 hmac;
+  private final SecureRandom random = new SecureRandom();
+
+  private final ConcurrentHashMap<String, Code> codes = new ConcurrentHashMap<>();
+  private final Object[] locks = new Object[64];
+  private final TimingWheel<String> expiry;
 
   @Value("${app.otp.length}") private int otpLen;
   @Value("${app.otp.ttl-minutes}") private int ttlMinutes;
   @Value("${app.otp.resend-cooldown-seconds}") private int resendCooldown;
   @Value("${app.otp.max-attempts}") private int maxAttempts;
+  @Value("${app.otp.purge-batch-size:1000}") private int purgeBatch;
 
-  @Transactional
-  public void sendOtp(String emailLower) {
-    var now = LocalDateTime.now();
-    var rec = otpRepo.findByEmailIgnoreCase(emailLower).orElse(null);
+  /** One live code; guarded by its email's lock. */
+  private static final class Code {
+    final String hash; final long expiresAt; final long sentAt; int attempts;
+    Code(String hash, long expiresAt, long sentAt, int attempts) {
+      this.hash = hash; this.expiresAt = expiresAt; this.sentAt = sentAt; this.attempts = attempts;
+    }
+  }
 
-    if (rec != null && Duration.between(rec.getLastSentAt(), now).getSeconds() < resendCooldown) return;
+  public OtpService(EmailOtpRepository otpRepo, MailService mailService,
+                    @Value("${app.otp.hmac-secret:}") String secret,
+                    @Value("${app.otp.wheel-tick-ms:1000}") long tickMillis) {
+    // Its own key: sharing jwt.secret would tie OTP hashes to token signing and rotation
+    if (secret == null || secret.isBlank()) {
+      throw new IllegalStateException("app.otp.hmac-secret must be set");
+    }
+    this.otpRepo = otpRepo;
+    this.mailService = mailService;
+    this.hmac = new HmacSha256(secret);
+    this.expiry = new TimingWheel<>(Duration.ofMillis(tickMillis), 1024, System.currentTimeMillis());
+    for (int i = 0; i < locks.length; i++) locks[i] = new Object();
+  }
 
-    String otp = gen(otpLen);
-    String hash = bcrypt.encode(otp);
+  @PostConstruct
+  void restore() {
+    for (EmailOtp rec : otpRepo.findByExpiresAtAfter(LocalDateTime.now())) {
+      Code c = new Code(rec.getOtpHash(), millis(rec.getExpiresAt()), millis(rec.getLastSentAt()), rec.getAttempts());
+      codes.put(rec.getEmail(), c);
+      expiry.schedule(rec.getEmail(), c.expiresAt);
+    }
+    if (!codes.isEmpty()) log.info("Restored {} live OTPs", codes.size());
+  }
 
-    if (rec == null) rec = new EmailOtp();
-    rec.setEmail(emailLower);
-    rec.setOtpHash(hash);
-    rec.setExpiresAt(now.plusMinutes(ttlMinutes));
-    rec.setAttempts(0);
-    rec.setLastSentAt(now);
-    otpRepo.save(rec);
+  public void sendOtp(String emailLower) {
+    long now = System.currentTimeMillis();
+    String otp;
+    synchronized (lockFor(emailLower)) {
+      Code cur = codes.get(emailLower);
+      if (cur != null && now - cur.sentAt < resendCooldown * 1000L) return;
 
+      otp = gen(otpLen);
+      Code c = new Code(hash(emailLower, otp), now + ttlMinutes * 60_000L, now, 0);
+      otpRepo.upsert(emailLower, c.hash, time(c.expiresAt), time(now));
+      codes.put(emailLower, c);
+      expiry.schedule(emailLower, c.expiresAt);
+    }
     mailService.sendOtpEmail(emailLower, otp, ttlMinutes);
   }
 
-  @Transactional
   public boolean verify(String emailLower, String inputOtp) {
-    var rec = otpRepo.findByEmailIgnoreCase(emailLower).orElse(null);
-    if (rec == null) return false;
-    if (rec.getExpiresAt().isBefore(LocalDateTime.now())) { otpRepo.deleteByEmailIgnoreCase(emailLower); return false; }
-    if (rec.getAttempts() >= maxAttempts) { otpRepo.deleteByEmailIgnoreCase(emailLower); return false; }
+    if (inputOtp == null) return false;
+    byte[] input = message(emailLower, inputOtp.trim());
+    synchronized (lockFor(emailLower)) {
+      Code c = codes.get(emailLower);
+      if (c == null || !hmac.matches(input, c.hash)) c = reload(emailLower, c);
+      if (c == null) return false;
+      if (c.expiresAt <= System.currentTimeMillis() || c.attempts >= maxAttempts) { drop(emailLower); return false; }
+
+      if (hmac.matches(input, c.hash)) { drop(emailLower); return true; }
+      c.attempts++;
+      otpRepo.updateAttempts(emailLower, c.attempts);
+      return false;
+    }
+  }
+
+  /** Forgets codes whose time is up; their rows go with the next purge. */
+  @Scheduled(fixedRateString = "${app.otp.wheel-tick-ms:1000}")
+  public void expire() {
+    long now = System.currentTimeMillis();
+    for (String email : expiry.advance(now)) {
+      synchronized (lockFor(email)) {
+        Code c = codes.get(email);
+        if (c != null && c.expiresAt <= now) codes.remove(email);
+      }
+    }
+  }
 
-    boolean ok = bcrypt.matches(inputOtp, rec.getOtpHash());
-    if (ok) { otpRepo.deleteByEmailIgnoreCase(emailLower); return true; }
-    rec.setAttempts(rec.getAttempts() + 1); otpRepo.save(rec); return false;
+  @Scheduled(fixedDelayString = "${app.otp.purge-interval-ms:600000}")
+  public void purgeExpired() {
+    LocalDateTime now = LocalDateTime.now();
+    int total = 0, n;
+    do { n = otpRepo.deleteExpiredBatch(now, purgeBatch); total += n; } while (n == purgeBatch);
+    if (total > 0) log.info("Purged {} expired OTP rows", total);
   }
 
-  private String gen(int n){ var r=ThreadLocalRandom.current(); var sb=new StringBuilder(n);
-    for(int i=0;i<n;i++) sb.append(r.nextInt(10)); return sb.toString(); }
+  private void drop(String email) { codes.remove(email); otpRepo.deleteByEmail(email); }
+
+  /**
+   * The email's code as stored, replacing {@code cur} in memory; null when the
+   * row is gone (verified or expired elsewhere). Caller holds the email's lock.
+   */
+  private Code reload(String email, Code cur) {
+    EmailOtp rec = otpRepo.findByEmail(email).orElse(null);
+    if (rec == null) { codes.remove(email); return null; }
+    int attempts = rec.getAttempts();
+    if (cur != null && cur.hash.equals(rec.getOtpHash())) attempts = Math.max(attempts, cur.attempts);
+    Code c = new Code(rec.getOtpHash(), millis(rec.getExpiresAt()), millis(rec.getLastSentAt()), attempts);
+    codes.put(email, c);
+    expiry.schedule(email, c.expiresAt);
+    return c;
+  }
+
+  private Object lockFor(String email) { return locks[(email.hashCode() & 0x7fffffff) % locks.length]; }
+
+  private String hash(String email, String otp) { return hmac.hex(email + "\n" + otp); }
+
+  private static byte[] message(String email, String otp) { return (email + "\n" + otp).getBytes(StandardCharsets.UTF_8); }
+
+  private static long millis(LocalDateTime t) { return t.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli(); }
+
+  private static LocalDateTime time(long millis) { return LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneId.systemDefault()); }
+
+  private String gen(int n){ var sb=new StringBuilder(n);
+    for(int i=0;i<n;i++) sb.append(random.nextInt(10)); return sb.toString(); }
 }
@@ -0,0 +1,106 @@
+// src/main/java/com/ekrishihub/backend/service/PasswordCheckPool.java
+package com.ekrishihub.backend.service;
+
+import com.ekrishihub.backend.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Admission control for password checks and hashing.
+ *
+ * A BCrypt comparison or hash is tens of milliseconds of pure CPU, so logins
+ * and registrations run it on a small dedicated pool instead of request
+ * threads: {@code threads} bounds the CPU a burst of them can take and
+ * {@code queue-capacity} bounds how many wait. Anything beyond that is
+ * refused at once with 429 and {@code Retry-After}, which leaves Tomcat's
+ * threads for the rest of the API.
+ * Meters are published as {@code auth.password.*}.
+ */
+@Component
+public class PasswordCheckPool {
+
+  private final ThreadPoolExecutor pool;
+  private final long timeoutMillis;
+  private final long retryAfterSeconds;
+  private final Counter rejected;
+
+  public PasswordCheckPool(
+      MeterRegistry meters,
+      @Value("${app.auth.password.threads:0}") int threads,
+      @Value("${app.auth.password.queue-capacity:64}") int queueCapacity,
+      @Value("${app.auth.password.timeout-ms:5000}") long timeoutMillis,
+      @Value("${app.auth.password.retry-after-seconds:2}") long retryAfterSeconds
+  ) {
+    // 0 = half the cores: logins can never take the whole machine
+    int size = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+    this.timeoutMillis = timeoutMillis;
+    this.retryAfterSeconds = retryAfterSeconds;
+
+    AtomicInteger n = new AtomicInteger();
+    this.pool = new ThreadPoolExecutor(size, size, 60, TimeUnit.SECONDS,
+        new ArrayBlockingQueue<>(queueCapacity), r -> {
+          Thread t = new Thread(r, "password-check-" + n.incrementAndGet());
+          t.setDaemon(true);
+          return t;
+        });
+    this.pool.allowCoreThreadTimeOut(true);
+
+    Gauge.builder("auth.password.active", pool, ThreadPoolExecutor::getActiveCount).register(meters);
+    Gauge.builder("auth.password.queued", pool, p -> p.getQueue().size()).register(meters);
+    FunctionCounter.builder("auth.password.completed", pool, ThreadPoolExecutor::getCompletedTaskCount)
+        .register(meters);
+    this.rejected = Counter.builder("auth.password.rejected").register(meters);
+  }
+
+  /**
+   * Runs {@code check} (a password comparison or hash) on the pool and waits
+   * for it. Its own runtime exceptions (bad credentials, disabled account,
+   * ...) are rethrown as-is.
+   */
+  public <T> T run(Callable<T> check) {
+    Future<T> f;
+    try {
+      f = pool.submit(check);
+    } catch (RejectedExecutionException ex) {
+      rejected.increment();
+      throw new TooManyRequestsException("Too many sign-in requests, try again shortly", retryAfterSeconds);
+    }
+
+    try {
+      return f.get(timeoutMillis, TimeUnit.MILLISECONDS);
+    } catch (TimeoutException ex) {
+      f.cancel(true);
+      throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Password check timed out, try again");
+    } catch (InterruptedException ex) {
+      f.cancel(true);
+      Thread.currentThread().interrupt();
+      throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Interrupted");
+    } catch (ExecutionException ex) {
+      if (ex.getCause() instanceof RuntimeException re) throw re;
+      if (ex.getCause() instanceof Error err) throw err;
+      throw new IllegalStateException(ex.getCause());
+    }
+  }
+
+  @PreDestroy
+  void shutdown() {
+    pool.shutdownNow();
+  }
+}
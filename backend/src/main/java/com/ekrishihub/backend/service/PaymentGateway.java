@@ -0,0 +1,35 @@
+// src/main/java/com/ekrishihub/backend/service/PaymentGateway.java
+package com.ekrishihub.backend.service;
+
+/**
+ * The payment provider as OrderService and PaymentController see it.
+ *
+ * Implementations are singletons and are called outside any database
+ * transaction. Failures surface as {@code ResponseStatusException}: 503 when
+ * the gateway is not configured or is being shed (bulkhead full, circuit
+ * open), 504 on timeout and 502 when the provider answers with an error.
+ */
+public interface PaymentGateway {
+
+  /** Public key id handed to the browser checkout; blank if not configured. */
+  String keyId();
+
+  boolean isConfigured();
+
+  /** Creates a provider-side order for {@code amountPaise} (smallest currency unit). */
+  GatewayOrder createOrder(long amountPaise, String currency, String receipt);
+
+  /**
+   * Current state of a provider-side order: {@code status} is the provider's
+   * ("created", "attempted", "paid"); {@code paymentId} is the captured payment, if any.
+   */
+  GatewayOrderState fetchOrderState(String gatewayOrderId);
+
+  record GatewayOrder(String id, long amountPaise, String currency, String receipt, String status) {}
+
+  record GatewayOrderState(String id, String status, String paymentId) {
+    public boolean paid() {
+      return "paid".equalsIgnoreCase(status);
+    }
+  }
+}
@@ -0,0 +1,167 @@
+// src/main/java/com/ekrishihub/backend/service/PaymentReconciler.java
+package com.ekrishihub.backend.service;
+
+import com.ekrishihub.backend.entity.Order;
+import com.ekrishihub.backend.repository.OrderRepository;
+import com.ekrishihub.backend.service.OrderService.GatewayStatus;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Settles orders whose payment outcome never reached us (closed tab, lost
+ * webhook).
+ *
+ * Periodically walks PENDING orders whose gateway order was created or last
+ * handed out more than {@code older-than-minutes} ago, in id-keyset batches,
+ * and asks the gateway about each distinct gateway order (bundles share one)
+ * with at most {@code concurrency} calls in flight. Paid ones become PAID;
+ * ones still unpaid {@code abandon-after-minutes} after that become FAILED,
+ * which gives their stock back. The clock is not the order's own age: an old
+ * order the customer has just gone back to pay is not abandoned under them. Each batch is applied with
+ * {@link OrderService#applyGatewayStatuses}. Gateway errors just leave the
+ * order for the next run.
+ */
+@Slf4j
+@Service
+public class PaymentReconciler {
+
+  private final OrderRepository orderRepository;
+  private final OrderService orderService;
+  private final PaymentGateway paymentGateway;
+  private final ExecutorService pool;
+
+  private final Duration olderThan;
+  private final Duration abandonAfter;
+  private final int batchSize;
+
+  public PaymentReconciler(
+      OrderRepository orderRepository,
+      OrderService orderService,
+      PaymentGateway paymentGateway,
+      @Value("${app.payment.reconcile.older-than-minutes:15}") long olderThanMinutes,
+      @Value("${app.payment.reconcile.abandon-after-minutes:1440}") long abandonAfterMinutes,
+      @Value("${app.payment.reconcile.batch-size:200}") int batchSize,
+      @Value("${app.payment.reconcile.concurrency:4}") int concurrency
+  ) {
+    this.orderRepository = orderRepository;
+    this.orderService = orderService;
+    this.paymentGateway = paymentGateway;
+    this.olderThan = Duration.ofMinutes(olderThanMinutes);
+    this.abandonAfter = Duration.ofMinutes(abandonAfterMinutes);
+    this.batchSize = batchSize;
+
+    AtomicInteger n = new AtomicInteger();
+    this.pool = Executors.newFixedThreadPool(concurrency, r -> {
+      Thread t = new Thread(r, "payment-reconcile-" + n.incrementAndGet());
+      t.setDaemon(true);
+      return t;
+    });
+  }
+
+  /** One pass over all stale PENDING orders; returns the number of orders changed. */
+  @Scheduled(fixedDelayString = "${app.payment.reconcile.interval-ms:300000}",
+             initialDelayString = "${app.payment.reconcile.initial-delay-ms:60000}")
+  public int reconcile() {
+    if (!paymentGateway.isConfigured()) return 0;
+
+    LocalDateTime now = LocalDateTime.now();
+    LocalDateTime staleBefore = now.minus(olderThan);
+    LocalDateTime abandonBefore = now.minus(abandonAfter);
+
+    Set<String> asked = new HashSet<>();
+    int checked = 0;
+    int changed = 0;
+    long afterId = 0;
+    while (true) {
+      List<Order> page = orderRepository.findStalePending(staleBefore, afterId, PageRequest.of(0, batchSize));
+      if (page.isEmpty()) break;
+      afterId = page.get(page.size() - 1).getId();
+
+      Set<String> ids = new LinkedHashSet<>();
+      for (Order o : page) {
+        if (asked.add(o.getRazorpayOrderId())) ids.add(o.getRazorpayOrderId());
+      }
+      if (!ids.isEmpty()) {
+        checked += ids.size();
+        // Latest use over the whole bundle, including orders on later pages: it is
+        // abandoned only once all of it is idle
+        Map<String, LocalDateTime> newest = new LinkedHashMap<>();
+        for (Object[] row : orderRepository.findLastPaymentUse(ids)) {
+          newest.put((String) row[0], (LocalDateTime) row[1]);
+        }
+        List<GatewayStatus> updates = resolve(newest, abandonBefore);
+        if (!updates.isEmpty()) {
+          changed += orderService.applyGatewayStatuses(updates);
+        }
+      }
+      if (page.size() < batchSize) break;
+    }
+    if (checked > 0) {
+      log.info("Payment reconciliation: {} gateway orders checked, {} orders updated", checked, changed);
+    }
+    return changed;
+  }
+
+  @PreDestroy
+  void shutdown() {
+    pool.shutdownNow();
+  }
+
+  /* ----------------------------- HELPERS ---------------------------- */
+
+  /** Asks the gateway about each id, {@code concurrency} at a time. */
+  private List<GatewayStatus> resolve(Map<String, LocalDateTime> newest, LocalDateTime abandonBefore) {
+    List<Callable<PaymentGateway.GatewayOrderState>> calls = new ArrayList<>(newest.size());
+    for (String id : newest.keySet()) {
+      calls.add(() -> paymentGateway.fetchOrderState(id));
+    }
+
+    List<Future<PaymentGateway.GatewayOrderState>> results;
+    try {
+      results = pool.invokeAll(calls);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return List.of();
+    }
+
+    List<GatewayStatus> updates = new ArrayList<>();
+    for (Future<PaymentGateway.GatewayOrderState> f : results) {
+      PaymentGateway.GatewayOrderState state;
+      try {
+        state = f.get();
+      } catch (ExecutionException e) {
+        log.debug("Reconciliation lookup failed: {}", e.getCause().toString());
+        continue;
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        break;
+      }
+      if (state.paid()) {
+        updates.add(new GatewayStatus(state.id(), state.paymentId(), "PAID"));
+      } else if (newest.get(state.id()).isBefore(abandonBefore)) {
+        updates.add(new GatewayStatus(state.id(), null, "FAILED"));
+      }
+    }
+    return updates;
+  }
+}
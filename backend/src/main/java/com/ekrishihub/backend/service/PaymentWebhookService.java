@@ -0,0 +1,255 @@
+// src/main/java/com/ekrishihub/backend/service/PaymentWebhookService.java
+package com.ekrishihub.backend.service;
+
+import com.ekrishihub.backend.entity.PaymentWebhookEvent;
+import com.ekrishihub.backend.repository.PaymentWebhookEventRepository;
+import com.ekrishihub.backend.service.OrderService.GatewayStatus;
+import com.ekrishihub.backend.util.HmacSha256;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Razorpay webhooks ({@code payment.captured}, {@code order.paid}).
+ *
+ * {@code payment.failed} is acknowledged and ignored: Razorpay sends it for
+ * every declined attempt while the gateway order stays open for another
+ * try, so it says nothing final about the order. Orders that are never paid
+ * are abandoned by {@link PaymentReconciler}.
+ *
+ * The request thread checks the signature, extracts (gateway order id,
+ * payment id, status) and inserts it into {@code payment_webhook_inbox}
+ * before answering 200, so an acknowledged event survives a crash; if the
+ * insert fails the webhook answers 5xx and Razorpay redelivers. A worker
+ * leases due rows in batches, keeps one update per gateway order and applies
+ * the batch through {@link OrderService#applyGatewayStatuses} in a single
+ * transaction, then deletes the rows. An event that cannot be applied stays
+ * in the inbox and is retried with capped backoff, never dropped; a lease
+ * left by a crashed worker runs out and the rows are picked up again.
+ * Re-applying a status is a no-op. Meters are published as
+ * {@code payment.webhook.*}.
+ */
+@Slf4j
+@Service
+public class PaymentWebhookService {
+
+  public enum Outcome { ACCEPTED, IGNORED, INVALID_SIGNATURE, NOT_CONFIGURED }
+
+  private final OrderService orderService;
+  private final PaymentWebhookEventRepository inbox;
+  private final ObjectMapper objectMapper;
+  private final HmacSha256 signer;            // null when no webhook secret is set
+  private final int maxBatch;
+  private final long lingerMillis;
+  private final long pollMillis;
+  private final long leaseSeconds;
+  private final long retryBaseSeconds;
+  private final long retryMaxSeconds;
+
+  private final Semaphore wake = new Semaphore(0);
+  private final Counter accepted;
+  private final Counter invalid;
+  private final Counter applied;
+  private final Counter failed;
+
+  private volatile boolean running;
+  private Thread worker;
+
+  public PaymentWebhookService(
+      OrderService orderService,
+      PaymentWebhookEventRepository inbox,
+      ObjectMapper objectMapper,
+      MeterRegistry meters,
+      @Value("${razorpay.webhook_secret:}") String webhookSecret,
+      @Value("${app.payment.webhook.max-batch:200}") int maxBatch,
+      @Value("${app.payment.webhook.linger-ms:50}") long lingerMillis,
+      @Value("${app.payment.webhook.poll-ms:5000}") long pollMillis,
+      @Value("${app.payment.webhook.lease-seconds:60}") long leaseSeconds,
+      @Value("${app.payment.webhook.retry-base-seconds:5}") long retryBaseSeconds,
+      @Value("${app.payment.webhook.retry-max-seconds:600}") long retryMaxSeconds
+  ) {
+    this.orderService = orderService;
+    this.inbox = inbox;
+    this.objectMapper = objectMapper;
+    this.signer = (webhookSecret == null || webhookSecret.isBlank()) ? null : new HmacSha256(webhookSecret);
+    this.maxBatch = maxBatch;
+    this.lingerMillis = lingerMillis;
+    this.pollMillis = pollMillis;
+    this.leaseSeconds = leaseSeconds;
+    this.retryBaseSeconds = retryBaseSeconds;
+    this.retryMaxSeconds = retryMaxSeconds;
+
+    Gauge.builder("payment.webhook.inbox", inbox, PaymentWebhookEventRepository::count).register(meters);
+    this.accepted = Counter.builder("payment.webhook.events").tag("result", "accepted").register(meters);
+    this.invalid = Counter.builder("payment.webhook.events").tag("result", "invalid-signature").register(meters);
+    this.applied = Counter.builder("payment.webhook.orders.updated").register(meters);
+    this.failed = Counter.builder("payment.webhook.orders.failed").register(meters);
+  }
+
+  /* ----------------------------- INTAKE ----------------------------- */
+
+  /**
+   * Verifies and stores one delivery; {@code body} must be the raw request
+   * bytes. A database error propagates, so the delivery is not acknowledged.
+   */
+  public Outcome receive(byte[] body, String signature) {
+    if (signer == null) return Outcome.NOT_CONFIGURED;
+    if (!signer.matches(body, signature)) {
+      invalid.increment();
+      return Outcome.INVALID_SIGNATURE;
+    }
+    GatewayStatus update = parse(body);
+    if (update == null) return Outcome.IGNORED;
+    LocalDateTime now = LocalDateTime.now();
+    inbox.save(new PaymentWebhookEvent(null, update.razorpayOrderId(), update.paymentId(), update.status(),
+        0, now, null, null, now));
+    accepted.increment();
+    wake.release();
+    return Outcome.ACCEPTED;
+  }
+
+  /* ----------------------------- WORKER ----------------------------- */
+
+  @PostConstruct
+  void start() {
+    running = true;
+    worker = new Thread(this::drainLoop, "payment-webhook");
+    worker.setDaemon(true);
+    worker.start();
+  }
+
+  @PreDestroy
+  void stop() throws InterruptedException {
+    running = false;
+    wake.release();
+    // Anything not applied by then is still in the inbox for the next start
+    worker.join(TimeUnit.SECONDS.toMillis(10));
+  }
+
+  private void drainLoop() {
+    while (running) {
+      try {
+        // Woken by receive, or every poll-ms for retries that have come due
+        if (wake.tryAcquire(pollMillis, TimeUnit.MILLISECONDS)) {
+          // Give a burst a moment to pile up so it lands in one transaction
+          Thread.sleep(lingerMillis);
+        }
+        wake.drainPermits();
+        while (running && applyBatch() == maxBatch) {
+          // full batch: more may be waiting
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return;
+      } catch (RuntimeException e) {
+        // The rows are still there; their lease runs out and they are retried
+        log.error("Payment webhook batch failed", e);
+      }
+    }
+  }
+
+  /** Leases and applies one batch of due events; returns how many rows it took. */
+  int applyBatch() {
+    LocalDateTime now = LocalDateTime.now();
+    List<Long> due = inbox.findDueIds(now, PageRequest.of(0, maxBatch));
+    if (due.isEmpty()) return 0;
+    String token = UUID.randomUUID().toString();
+    if (inbox.claim(due, token, now, now.plusSeconds(leaseSeconds)) == 0) return 0;
+    List<PaymentWebhookEvent> batch = inbox.findByClaimToken(token);
+    if (batch.isEmpty()) return 0;
+
+    Map<String, List<PaymentWebhookEvent>> byGatewayId = new LinkedHashMap<>();
+    for (PaymentWebhookEvent e : batch) {
+      byGatewayId.computeIfAbsent(e.getRazorpayOrderId(), k -> new ArrayList<>()).add(e);
+    }
+    try {
+      applied.increment(orderService.applyGatewayStatuses(statuses(byGatewayId.values())));
+      inbox.deleteApplied(ids(batch));
+    } catch (RuntimeException e) {
+      // One order that cannot be written must not hold up the rest
+      for (List<PaymentWebhookEvent> events : byGatewayId.values()) {
+        try {
+          applied.increment(orderService.applyGatewayStatuses(statuses(List.of(events))));
+          inbox.deleteApplied(ids(events));
+        } catch (RuntimeException ex) {
+          for (PaymentWebhookEvent ev : events) retryLater(ev, ex);
+        }
+      }
+    }
+    return batch.size();
+  }
+
+  /* ----------------------------- HELPERS ---------------------------- */
+
+  /** One update per gateway order; PAID wins, since it is final. */
+  private static List<GatewayStatus> statuses(Iterable<List<PaymentWebhookEvent>> groups) {
+    List<GatewayStatus> out = new ArrayList<>();
+    for (List<PaymentWebhookEvent> events : groups) {
+      PaymentWebhookEvent pick = events.get(0);
+      for (PaymentWebhookEvent e : events) {
+        if ("PAID".equals(e.getStatus())) {
+          pick = e;
+          break;
+        }
+      }
+      out.add(new GatewayStatus(pick.getRazorpayOrderId(), pick.getPaymentId(), pick.getStatus()));
+    }
+    return out;
+  }
+
+  private static List<Long> ids(List<PaymentWebhookEvent> events) {
+    return events.stream().map(PaymentWebhookEvent::getId).toList();
+  }
+
+  private void retryLater(PaymentWebhookEvent e, Exception error) {
+    int attempts = e.getAttempts() + 1;
+    String reason = String.valueOf(error.getMessage());
+    if (reason.length() > 500) reason = reason.substring(0, 500);
+    long delay = Math.min(retryMaxSeconds, retryBaseSeconds << Math.min(attempts - 1, 20));
+    inbox.markFailed(e.getId(), LocalDateTime.now().plusSeconds(delay), reason);
+    failed.increment();
+    log.error("Could not apply {} to gateway order {} (attempt {}), retrying in {}s: {}",
+        e.getStatus(), e.getRazorpayOrderId(), attempts, delay, reason);
+  }
+
+  /** (gateway order, payment, status) for the events we act on; null for anything else. */
+  private GatewayStatus parse(byte[] body) {
+    JsonNode root;
+    try {
+      root = objectMapper.readTree(body);
+    } catch (IOException e) {
+      return null;
+    }
+    String status = switch (root.path("event").asText()) {
+      case "payment.captured", "order.paid" -> "PAID";
+      default -> null;
+    };
+    if (status == null) return null;
+
+    JsonNode payment = root.path("payload").path("payment").path("entity");
+    String orderId = payment.path("order_id").asText(null);
+    if (orderId == null) {
+      orderId = root.path("payload").path("order").path("entity").path("id").asText(null);
+    }
+    if (orderId == null) return null;
+    return new GatewayStatus(orderId, payment.path("id").asText(null), status);
+  }
+}
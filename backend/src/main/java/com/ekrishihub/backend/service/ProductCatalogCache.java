@@ -0,0 +1,96 @@
+// src/main/java/com/ekrishihub/backend/service/ProductCatalogCache.java
+package com.ekrishihub.backend.service;
+
+import com.ekrishihub.backend.dto.ProductResponse;
+import com.ekrishihub.backend.util.BoundedCache;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Read cache in front of {@code ProductRepository} for the hot catalog reads:
+ * single products, per-owner lists and the full listing.
+ *
+ * {@link ProductService} writes through the by-id entry and drops the lists a
+ * write can affect. Stock movements only patch the by-id entry and the
+ * owner's list; the full listing keeps its stock until it expires. Counters are published as {@code catalog.cache.*} meters.
+ */
+@Component
+public class ProductCatalogCache {
+
+  private static final String ALL = "all";
+
+  private final BoundedCache<Long, ProductResponse> byId;
+  private final BoundedCache<Long, List<ProductResponse>> byOwner;
+  private final BoundedCache<String, List<ProductResponse>> listing;
+
+  public ProductCatalogCache(
+      MeterRegistry meters,
+      @Value("${app.cache.products.max-size:20000}") int maxSize,
+      @Value("${app.cache.products.owner-lists:2000}") int maxOwnerLists,
+      @Value("${app.cache.products.ttl-seconds:300}") long ttlSeconds
+  ) {
+    Duration ttl = Duration.ofSeconds(ttlSeconds);
+    this.byId = new BoundedCache<>(maxSize, ttl);
+    this.byOwner = new BoundedCache<>(maxOwnerLists, ttl);
+    this.listing = new BoundedCache<>(1, ttl);
+    register(meters, "by-id", byId);
+    register(meters, "by-owner", byOwner);
+    register(meters, "listing", listing);
+  }
+
+  /* ------------------------------ READ ------------------------------ */
+
+  public ProductResponse getById(Long id, Function<Long, ProductResponse> loader) {
+    return byId.getOrLoad(id, loader);
+  }
+
+  public List<ProductResponse> getByOwner(Long ownerId, Function<Long, List<ProductResponse>> loader) {
+    return byOwner.getOrLoad(ownerId, id -> List.copyOf(loader.apply(id)));
+  }
+
+  public List<ProductResponse> getAll(Supplier<List<ProductResponse>> loader) {
+    return listing.getOrLoad(ALL, k -> List.copyOf(loader.get()));
+  }
+
+  /* ----------------------------- WRITE ------------------------------ */
+
+  /** A product was created or changed: refresh its entry, drop lists that contain it. */
+  public void onSaved(ProductResponse p) {
+    byId.put(p.getId(), p);
+    if (p.getOwnerId() != null) byOwner.invalidate(p.getOwnerId());
+    listing.invalidateAll();
+  }
+
+  /** Only the product's stock changed: leave the full listing to its TTL. */
+  public void onStockChanged(ProductResponse p) {
+    byId.put(p.getId(), p);
+    if (p.getOwnerId() != null) byOwner.invalidate(p.getOwnerId());
+  }
+
+  public void onDeleted(Long id, Long ownerId) {
+    byId.invalidate(id);
+    if (ownerId != null) byOwner.invalidate(ownerId);
+    listing.invalidateAll();
+  }
+
+  /* ----------------------------- METRICS ---------------------------- */
+
+  private static void register(MeterRegistry meters, String name, BoundedCache<?, ?> cache) {
+    FunctionCounter.builder("catalog.cache.hits", cache, BoundedCache::hitCount)
+        .tag("cache", name).register(meters);
+    FunctionCounter.builder("catalog.cache.misses", cache, BoundedCache::missCount)
+        .tag("cache", name).register(meters);
+    FunctionCounter.builder("catalog.cache.evictions", cache, BoundedCache::evictionCount)
+        .tag("cache", name).register(meters);
+    Gauge.builder("catalog.cache.size", cache, BoundedCache::size)
+        .tag("cache", name).register(meters);
+  }
+}
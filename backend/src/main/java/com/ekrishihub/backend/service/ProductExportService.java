@@ -0,0 +1,93 @@
+// src/main/java/com/ekrishihub/backend/service/ProductExportService.java
+package com.ekrishihub.backend.service;
+
+import com.ekrishihub.backend.dto.ProductResponse;
+import com.ekrishihub.backend.repository.ProductJdbcRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/** Full-catalog export for partner sync, streamed row by row. */
+@Service
+@RequiredArgsConstructor
+public class ProductExportService {
+
+  private static final String CSV_HEADER = "id,name,category,description,price,quantity,ownerId";
+
+  private final ProductJdbcRepository productJdbcRepository;
+  private final ObjectMapper objectMapper;
+
+  /** One JSON object per line (application/x-ndjson). */
+  public void writeNdjson(OutputStream out) throws IOException {
+    // Per-row flushes would turn every product into its own HTTP chunk.
+    ObjectWriter writer = objectMapper.writerFor(ProductResponse.class)
+        .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    try (JsonGenerator gen = objectMapper.getFactory().createGenerator(out)) {
+      gen.setRootValueSeparator(new SerializedString("\n"));
+      productJdbcRepository.streamAll(p -> {
+        try {
+          writer.writeValue(gen, p);
+        } catch (IOException ex) {
+          throw new UncheckedIOException(ex);
+        }
+      });
+      gen.writeRaw('\n');
+    } catch (UncheckedIOException ex) {
+      throw ex.getCause();
+    }
+  }
+
+  /** RFC 4180 CSV with a header row. */
+  public void writeCsv(OutputStream out) throws IOException {
+    Writer w = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+    try {
+      w.write(CSV_HEADER);
+      w.write("\r\n");
+      productJdbcRepository.streamAll(p -> {
+        try {
+          writeCsvRow(w, p);
+        } catch (IOException ex) {
+          throw new UncheckedIOException(ex);
+        }
+      });
+      w.flush();
+    } catch (UncheckedIOException ex) {
+      throw ex.getCause();
+    }
+  }
+
+  private void writeCsvRow(Writer w, ProductResponse p) throws IOException {
+    w.write(String.valueOf(p.getId()));
+    w.write(',');
+    w.write(csv(p.getName()));
+    w.write(',');
+    w.write(csv(p.getCategory()));
+    w.write(',');
+    w.write(csv(p.getDescription()));
+    w.write(',');
+    w.write(p.getPrice() == null ? "" : String.valueOf(p.getPrice()));
+    w.write(',');
+    w.write(p.getQuantity() == null ? "" : String.valueOf(p.getQuantity()));
+    w.write(',');
+    w.write(p.getOwnerId() == null ? "" : String.valueOf(p.getOwnerId()));
+    w.write("\r\n");
+  }
+
+  private static String csv(String s) {
+    if (s == null) return "";
+    if (s.indexOf(',') < 0 && s.indexOf('"') < 0 && s.indexOf('\n') < 0 && s.indexOf('\r') < 0) return s;
+    return '"' + s.replace("\"", "\"\"") + '"';
+  }
+}
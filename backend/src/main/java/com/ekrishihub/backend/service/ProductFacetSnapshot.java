@@ -0,0 +1,182 @@
+// src/main/java/com/ekrishihub/backend/service/ProductFacetSnapshot.java
+package com.ekrishihub.backend.service;
+
+import com.ekrishihub.backend.dto.ProductResponse;
+import com.ekrishihub.backend.dto.SearchFacets;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Columnar copy of the catalog used only for facet counting: one primitive array
+ * per attribute (sorted ids, category ordinals, prices, stock), so aggregating
+ * thousands of hits touches a few cache-friendly arrays instead of objects.
+ *
+ * The snapshot is rebuilt lazily from {@link ProductSearchIndex} only when
+ * {@link CatalogVersion} has moved since it was taken, i.e. when products were
+ * added, removed or edited. Stock moves with every order, so the stock column
+ * is instead patched in place by {@link #onStockChanged}.
+ */
+@Component
+@RequiredArgsConstructor
+public class ProductFacetSnapshot {
+
+  public static final int DEFAULT_BUCKETS = 10;
+  public static final int MAX_BUCKETS = 50;
+
+  private final ProductSearchIndex searchIndex;
+  private final CatalogVersion catalogVersion;
+
+  private volatile Columns columns;
+
+  /** Facets for {@code hits} (any order). Price range defaults to the hits' own min/max. */
+  public SearchFacets facets(List<ProductResponse> hits, Double minPrice, Double maxPrice, Integer buckets) {
+    Columns c = current();
+    long[] ids = new long[hits.size()];
+    for (int i = 0; i < ids.length; i++) {
+      ids[i] = hits.get(i).getId();
+    }
+    return c.aggregate(ids, minPrice, maxPrice, clampBuckets(buckets));
+  }
+
+  /** Facets computed from a plain list, for callers that have no index (startup fallback). */
+  public static SearchFacets facetsOf(List<ProductResponse> rows, Double minPrice, Double maxPrice, Integer buckets) {
+    Columns c = Columns.of(-1, rows);
+    return c.aggregate(c.ids, minPrice, maxPrice, clampBuckets(buckets));
+  }
+
+  /**
+   * One product's stock moved. Holds the rebuild lock, so a rebuild that read
+   * the index before the change cannot publish over this patch; a product the
+   * snapshot does not have yet is picked up by the next rebuild.
+   */
+  public synchronized void onStockChanged(Long id, Integer quantity) {
+    Columns c = columns;
+    if (c == null || id == null) return;
+    int r = Arrays.binarySearch(c.ids, id);
+    if (r >= 0) c.stock.set(r, quantity != null ? quantity : 0);
+  }
+
+  private Columns current() {
+    long version = catalogVersion.current();
+    Columns c = columns;
+    if (c == null || c.version != version) {
+      synchronized (this) {
+        c = columns;
+        if (c == null || c.version != version) {
+          c = Columns.of(version, searchIndex.allById());
+          columns = c;
+        }
+      }
+    }
+    return c;
+  }
+
+  private static int clampBuckets(Integer buckets) {
+    if (buckets == null) return DEFAULT_BUCKETS;
+    return Math.max(1, Math.min(buckets, MAX_BUCKETS));
+  }
+
+  /* ---------------------------- columns ---------------------------- */
+
+  private static final class Columns {
+    final long version;
+    final long[] ids;           // ascending
+    final int[] categoryOrd;
+    final double[] price;
+    final AtomicIntegerArray stock;   // the only column written after construction
+    final String[] categoryNames;
+
+    private Columns(long version, long[] ids, int[] categoryOrd, double[] price, AtomicIntegerArray stock,
+                    String[] categoryNames) {
+      this.version = version;
+      this.ids = ids;
+      this.categoryOrd = categoryOrd;
+      this.price = price;
+      this.stock = stock;
+      this.categoryNames = categoryNames;
+    }
+
+    static Columns of(long version, List<ProductResponse> rows) {
+      List<ProductResponse> sorted = new ArrayList<>(rows);
+      sorted.sort((a, b) -> Long.compare(a.getId(), b.getId()));
+      int n = sorted.size();
+      long[] ids = new long[n];
+      int[] ord = new int[n];
+      double[] price = new double[n];
+      AtomicIntegerArray stock = new AtomicIntegerArray(n);
+      Map<String, Integer> dict = new HashMap<>();
+      List<String> names = new ArrayList<>();
+      for (int i = 0; i < n; i++) {
+        ProductResponse p = sorted.get(i);
+        ids[i] = p.getId();
+        String cat = p.getCategory() != null ? p.getCategory() : "General";
+        ord[i] = dict.computeIfAbsent(cat, k -> {
+          names.add(k);
+          return names.size() - 1;
+        });
+        price[i] = p.getPrice() != null ? p.getPrice() : 0.0;
+        stock.set(i, p.getQuantity() != null ? p.getQuantity() : 0);
+      }
+      return new Columns(version, ids, ord, price, stock, names.toArray(new String[0]));
+    }
+
+    SearchFacets aggregate(long[] hitIds, Double minPrice, Double maxPrice, int buckets) {
+      int[] rows = new int[hitIds.length];
+      int n = 0;
+      double lo = Double.POSITIVE_INFINITY;
+      double hi = Double.NEGATIVE_INFINITY;
+      for (long id : hitIds) {
+        int r = Arrays.binarySearch(ids, id);
+        if (r < 0) continue;   // written after the snapshot was taken
+        rows[n++] = r;
+        lo = Math.min(lo, price[r]);
+        hi = Math.max(hi, price[r]);
+      }
+
+      long[] perCategory = new long[categoryNames.length];
+      long inStock = 0;
+      for (int i = 0; i < n; i++) {
+        int r = rows[i];
+        perCategory[categoryOrd[r]]++;
+        if (stock.get(r) > 0) inStock++;
+      }
+
+      List<SearchFacets.PriceBucket> histogram = new ArrayList<>();
+      if (n > 0) {
+        double from = minPrice != null ? minPrice : lo;
+        double to = maxPrice != null ? maxPrice : hi;
+        double width = to > from ? (to - from) / buckets : 0;
+        int count = width > 0 ? buckets : 1;
+        long[] counts = new long[count];
+        for (int i = 0; i < n; i++) {
+          double p = price[rows[i]];
+          int b = width > 0 ? (int) ((p - from) / width) : 0;
+          counts[Math.max(0, Math.min(b, count - 1))]++;
+        }
+        for (int b = 0; b < count; b++) {
+          double start = from + b * width;
+          double end = (b == count - 1) ? to : start + width;
+          histogram.add(new SearchFacets.PriceBucket(start, end, counts[b]));
+        }
+      }
+
+      Map<String, Long> categories = new LinkedHashMap<>();
+      Integer[] order = new Integer[perCategory.length];
+      for (int i = 0; i < order.length; i++) order[i] = i;
+      Arrays.sort(order, (a, b) -> Long.compare(perCategory[b], perCategory[a]));
+      for (int o : order) {
+        if (perCategory[o] > 0) categories.put(categoryNames[o], perCategory[o]);
+      }
+
+      return new SearchFacets(categories, histogram, inStock, n - inStock);
+    }
+  }
+}
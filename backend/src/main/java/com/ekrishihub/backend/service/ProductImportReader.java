@@ -0,0 +1,147 @@
+// src/main/java/com/ekrishihub/backend/service/ProductImportReader.java
+package com.ekrishihub.backend.service;
+
+import com.ekrishihub.backend.dto.ProductRequest;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Reads a bulk-import upload one row at a time: CSV with a header line
+ * (name, category, price, quantity, description in any order) or JSON lines
+ * shaped like {@link ProductRequest}. Rows that cannot be parsed come back with
+ * an error instead of stopping the import.
+ */
+class ProductImportReader {
+
+  record Row(long line, ProductRequest request, String error) {}
+
+  private final BufferedReader in;
+  private final boolean csv;
+  private final ObjectMapper objectMapper;
+
+  private Map<String, Integer> header;
+  private long lineNo = 0;
+
+  ProductImportReader(BufferedReader in, boolean csv, ObjectMapper objectMapper) {
+    this.in = in;
+    this.csv = csv;
+    this.objectMapper = objectMapper;
+  }
+
+  /** Next data row, or {@code null} at end of input. Blank lines are skipped. */
+  Row next() throws IOException {
+    while (true) {
+      String line = in.readLine();
+      if (line == null) return null;
+      lineNo++;
+      if (line.isBlank()) continue;
+      if (!csv) return jsonRow(line);
+      long start = lineNo;
+      // a quoted field may span several physical lines
+      StringBuilder record = new StringBuilder(line);
+      while (hasOpenQuote(record)) {
+        String more = in.readLine();
+        if (more == null) return new Row(start, null, "Unterminated quoted field");
+        lineNo++;
+        record.append('\n').append(more);
+      }
+      List<String> fields = splitCsv(record.toString());
+      if (header == null) {
+        header = readHeader(fields);
+        if (!header.containsKey("name")) {
+          throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+              "CSV header must name the columns: name, category, price, quantity, description");
+        }
+        continue;
+      }
+      return csvRow(start, fields);
+    }
+  }
+
+  private Row jsonRow(String line) {
+    try {
+      return new Row(lineNo, objectMapper.readValue(line, ProductRequest.class), null);
+    } catch (IOException ex) {
+      return new Row(lineNo, null, "Malformed JSON");
+    }
+  }
+
+  private Row csvRow(long line, List<String> fields) {
+    ProductRequest req = new ProductRequest();
+    req.setName(field(fields, "name"));
+    req.setCategory(field(fields, "category"));
+    req.setDescription(field(fields, "description"));
+    try {
+      String price = field(fields, "price");
+      req.setPrice(price == null || price.isBlank() ? null : Double.valueOf(price.trim()));
+      String qty = field(fields, "quantity");
+      req.setQuantity(qty == null || qty.isBlank() ? null : Integer.valueOf(qty.trim()));
+    } catch (NumberFormatException ex) {
+      return new Row(line, null, "price/quantity must be numeric");
+    }
+    return new Row(line, req, null);
+  }
+
+  private String field(List<String> fields, String name) {
+    Integer i = header.get(name);
+    return (i == null || i >= fields.size()) ? null : fields.get(i);
+  }
+
+  private static Map<String, Integer> readHeader(List<String> fields) {
+    Map<String, Integer> h = new HashMap<>();
+    for (int i = 0; i < fields.size(); i++) {
+      String k = fields.get(i).trim().toLowerCase(Locale.ROOT);
+      if (k.equals("stock")) k = "quantity";
+      h.put(k, i);
+    }
+    return h;
+  }
+
+  private static boolean hasOpenQuote(CharSequence s) {
+    int quotes = 0;
+    for (int i = 0; i < s.length(); i++) {
+      if (s.charAt(i) == '"') quotes++;
+    }
+    return (quotes & 1) == 1;
+  }
+
+  /** RFC 4180 field split ("" inside quotes is a literal quote). */
+  private static List<String> splitCsv(String s) {
+    List<String> out = new ArrayList<>();
+    StringBuilder cur = new StringBuilder();
+    boolean quoted = false;
+    for (int i = 0; i < s.length(); i++) {
+      char c = s.charAt(i);
+      if (quoted) {
+        if (c == '"') {
+          if (i + 1 < s.length() && s.charAt(i + 1) == '"') {
+            cur.append('"');
+            i++;
+          } else {
+            quoted = false;
+          }
+        } else {
+          cur.append(c);
+        }
+      } else if (c == '"') {
+        quoted = true;
+      } else if (c == ',') {
+        out.add(cur.toString());
+        cur.setLength(0);
+      } else if (c != '\r') {
+        cur.append(c);
+      }
+    }
+    out.add(cur.toString());
+    return out;
+  }
+}
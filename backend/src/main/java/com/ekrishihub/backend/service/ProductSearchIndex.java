@@ -0,0 +1,451 @@
+// src/main/java/com/ekrishihub/backend/service/ProductSearchIndex.java
+package com.ekrishihub.backend.service;
+
+import com.ekrishihub.backend.dto.ProductResponse;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory catalog search index.
+ *
+ * Keeps three inverted indexes (name trigrams, whole-word terms over
+ * name/category/description, exact category) plus a price-ordered index, so
+ * {@code /api/products/search} never has to scan the products table.
+ * {@link ProductService} keeps it current on every create/update/delete.
+ *
+ * For fuzzy search it also keeps the vocabulary of name words with a padded
+ * trigram index over that vocabulary: a misspelt query word is matched against
+ * the few thousand distinct words rather than every product, then expanded to
+ * the products containing them.
+ */
+@Component
+public class ProductSearchIndex {
+
+  private static final int GRAM = 3;
+  /** Minimum trigram similarity for a fuzzy word match (unless edit distance accepts it). */
+  private static final double MIN_SIMILARITY = 0.3;
+  /** Score multiplier for words reached through the synonym table rather than typed. */
+  private static final double SYNONYM_WEIGHT = 0.9;
+
+  private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+  private final Map<Long, ProductResponse> docs = new HashMap<>();
+  private final Map<String, Set<Long>> nameGrams = new HashMap<>();
+  private final Map<String, Set<Long>> terms = new HashMap<>();
+  private final Map<String, Set<Long>> categories = new HashMap<>();
+  private final TreeMap<Double, Set<Long>> prices = new TreeMap<>();
+  private final Map<String, Set<Long>> nameTerms = new HashMap<>();
+  private final Map<String, Set<String>> termGrams = new HashMap<>();
+
+  private volatile boolean ready = false;
+
+  /* ----------------------------- WRITE ----------------------------- */
+
+  /** Replace the whole index (startup / repair). */
+  public void rebuild(Collection<ProductResponse> all) {
+    lock.writeLock().lock();
+    try {
+      docs.clear();
+      nameGrams.clear();
+      terms.clear();
+      categories.clear();
+      prices.clear();
+      nameTerms.clear();
+      termGrams.clear();
+      for (ProductResponse p : all) {
+        addUnlocked(p);
+      }
+      ready = true;
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /** Insert or replace one product. */
+  public void upsert(ProductResponse p) {
+    if (p == null || p.getId() == null) return;
+    lock.writeLock().lock();
+    try {
+      removeUnlocked(p.getId());
+      addUnlocked(p);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  public void remove(Long id) {
+    if (id == null) return;
+    lock.writeLock().lock();
+    try {
+      removeUnlocked(id);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  public boolean isReady() {
+    return ready;
+  }
+
+  /* ------------------------------ READ ------------------------------ */
+
+  /**
+   * Same semantics as {@code ProductRepository.searchProducts}: {@code name} is a
+   * case-insensitive substring of the product name, {@code category} an exact
+   * case-insensitive match, prices inclusive. {@code q} additionally requires every
+   * word to appear in the name, category or description. Results are ordered by id.
+   */
+  public List<ProductResponse> search(String name, String q, String category, Double minPrice, Double maxPrice) {
+    String nameNorm = normalize(name);
+    String catNorm = normalize(category);
+    List<String> queryTerms = tokenize(q);
+
+    lock.readLock().lock();
+    try {
+      // Start from the most selective posting list, then filter the candidates in memory.
+      Set<Long> candidates = null;
+      if (nameNorm != null && nameNorm.length() >= GRAM) {
+        candidates = intersect(candidates, gramsCandidates(nameNorm));
+      }
+      for (String t : queryTerms) {
+        candidates = intersect(candidates, terms.getOrDefault(t, Set.of()));
+      }
+      if (catNorm != null) {
+        candidates = intersect(candidates, categories.getOrDefault(catNorm, Set.of()));
+      }
+      if (candidates == null && (minPrice != null || maxPrice != null)) {
+        candidates = priceCandidates(minPrice, maxPrice);
+      }
+      Collection<Long> scan = candidates != null ? candidates : docs.keySet();
+
+      List<ProductResponse> out = new ArrayList<>();
+      for (Long id : scan) {
+        ProductResponse p = docs.get(id);
+        if (p != null && matches(p, nameNorm, minPrice, maxPrice)) {
+          out.add(p);
+        }
+      }
+      out.sort(Comparator.comparing(ProductResponse::getId));
+      return out;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Typo- and transliteration-tolerant variant of {@link #search}: every word of
+   * {@code name} and {@code q} must loosely match a word of the product name,
+   * where "loosely" means the same word, a synonym from {@link CropSynonyms}
+   * ("tamatar" = "tomato" = "टमाटर"), or one within trigram similarity /
+   * bounded edit distance of either ("tomatto"). Category and price filter as
+   * usual. Results are ordered by match quality, then id.
+   */
+  public List<ProductResponse> fuzzySearch(String name, String q, String category, Double minPrice, Double maxPrice) {
+    List<String> words = new ArrayList<>(tokenize(name));
+    words.addAll(tokenize(q));
+    if (words.isEmpty()) {
+      return search(null, null, category, minPrice, maxPrice);
+    }
+    String catNorm = normalize(category);
+
+    lock.readLock().lock();
+    try {
+      Map<Long, Double> scores = null;
+      for (String w : words) {
+        Map<Long, Double> perDoc = new HashMap<>();
+        for (Map.Entry<String, Double> t : similarTerms(w).entrySet()) {
+          for (Long id : nameTerms.getOrDefault(t.getKey(), Set.of())) {
+            perDoc.merge(id, t.getValue(), Math::max);
+          }
+        }
+        if (scores == null) {
+          scores = perDoc;
+        } else {
+          Map<Long, Double> next = new HashMap<>();
+          for (Map.Entry<Long, Double> e : scores.entrySet()) {
+            Double s = perDoc.get(e.getKey());
+            if (s != null) next.put(e.getKey(), e.getValue() + s);
+          }
+          scores = next;
+        }
+        if (scores.isEmpty()) return List.of();
+      }
+
+      List<Map.Entry<Long, Double>> ranked = new ArrayList<>(scores.entrySet());
+      ranked.sort(Map.Entry.<Long, Double>comparingByValue().reversed()
+          .thenComparing(Map.Entry.comparingByKey()));
+      List<ProductResponse> out = new ArrayList<>();
+      for (Map.Entry<Long, Double> e : ranked) {
+        ProductResponse p = docs.get(e.getKey());
+        if (p == null || !matches(p, null, minPrice, maxPrice)) continue;
+        if (catNorm != null && !catNorm.equals(lower(p.getCategory()))) continue;
+        out.add(p);
+      }
+      return out;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /** Copy of every indexed product ordered by id (feeds the facet snapshot). */
+  public List<ProductResponse> allById() {
+    lock.readLock().lock();
+    try {
+      List<ProductResponse> out = new ArrayList<>(docs.values());
+      out.sort(Comparator.comparing(ProductResponse::getId));
+      return out;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /* ----------------------------- HELPERS ---------------------------- */
+
+  private void addUnlocked(ProductResponse p) {
+    Long id = p.getId();
+    docs.put(id, p);
+    String lowerName = lower(p.getName());
+    for (String g : grams(lowerName)) {
+      nameGrams.computeIfAbsent(g, k -> new HashSet<>()).add(id);
+    }
+    for (String t : documentTerms(p)) {
+      terms.computeIfAbsent(t, k -> new HashSet<>()).add(id);
+    }
+    for (String t : tokenize(p.getName())) {
+      Set<Long> ids = nameTerms.get(t);
+      if (ids == null) {
+        ids = new HashSet<>();
+        nameTerms.put(t, ids);
+        for (String g : paddedGrams(t)) {
+          termGrams.computeIfAbsent(g, k -> new HashSet<>()).add(t);
+        }
+      }
+      ids.add(id);
+    }
+    categories.computeIfAbsent(lower(p.getCategory()), k -> new HashSet<>()).add(id);
+    prices.computeIfAbsent(priceOf(p), k -> new HashSet<>()).add(id);
+  }
+
+  private void removeUnlocked(Long id) {
+    ProductResponse old = docs.remove(id);
+    if (old == null) return;
+    for (String g : grams(lower(old.getName()))) {
+      detach(nameGrams, g, id);
+    }
+    for (String t : documentTerms(old)) {
+      detach(terms, t, id);
+    }
+    for (String t : tokenize(old.getName())) {
+      detach(nameTerms, t, id);
+      if (!nameTerms.containsKey(t)) {
+        for (String g : paddedGrams(t)) {
+          Set<String> words = termGrams.get(g);
+          if (words == null) continue;
+          words.remove(t);
+          if (words.isEmpty()) termGrams.remove(g);
+        }
+      }
+    }
+    detach(categories, lower(old.getCategory()), id);
+    detach(prices, priceOf(old), id);
+  }
+
+  private static <K> void detach(Map<K, Set<Long>> index, K key, Long id) {
+    Set<Long> ids = index.get(key);
+    if (ids == null) return;
+    ids.remove(id);
+    if (ids.isEmpty()) index.remove(key);
+  }
+
+  private Set<Long> gramsCandidates(String nameNorm) {
+    Set<Long> result = null;
+    for (String g : grams(nameNorm)) {
+      result = intersect(result, nameGrams.getOrDefault(g, Set.of()));
+      if (result.isEmpty()) break;
+    }
+    return result == null ? Set.of() : result;
+  }
+
+  /**
+   * Name-vocabulary words similar to {@code word}, with a score in (0, 1]. The
+   * word is first widened to its synonym groups (including groups of synonyms it
+   * is a near-miss of), then each variant is looked up through the trigram index.
+   */
+  private Map<String, Double> similarTerms(String word) {
+    Map<String, Double> variants = new HashMap<>();
+    variants.put(word, 1.0);
+    for (String syn : CropSynonyms.expand(word)) {
+      variants.putIfAbsent(syn, SYNONYM_WEIGHT);
+    }
+    int synonymEdits = maxEdits(word) - 1;
+    if (synonymEdits > 0) {
+      for (String v : CropSynonyms.vocabulary()) {
+        int d = editDistance(word, v, synonymEdits);
+        if (d <= synonymEdits) {
+          double weight = SYNONYM_WEIGHT * (1.0 - (double) d / Math.max(word.length(), v.length()));
+          for (String syn : CropSynonyms.expand(v)) {
+            variants.merge(syn, weight, Math::max);
+          }
+        }
+      }
+    }
+
+    Map<String, Double> out = new HashMap<>();
+    for (Map.Entry<String, Double> v : variants.entrySet()) {
+      String variant = v.getKey();
+      Set<String> vGrams = paddedGrams(variant);
+      Map<String, Integer> shared = new HashMap<>();
+      for (String g : vGrams) {
+        for (String t : termGrams.getOrDefault(g, Set.of())) {
+          shared.merge(t, 1, Integer::sum);
+        }
+      }
+      int maxEdits = maxEdits(variant);
+      for (Map.Entry<String, Integer> c : shared.entrySet()) {
+        String term = c.getKey();
+        int common = c.getValue();
+        double similarity = (double) common / (vGrams.size() + paddedGrams(term).size() - common);
+        int d = editDistance(variant, term, maxEdits);
+        double closeness = d <= maxEdits ? 1.0 - (double) d / Math.max(variant.length(), term.length()) : 0;
+        double score = Math.max(similarity, closeness);
+        if (similarity >= MIN_SIMILARITY || d <= maxEdits) {
+          out.merge(term, score * v.getValue(), Math::max);
+        }
+      }
+    }
+    return out;
+  }
+
+  /** Typos tolerated for a word of this length. */
+  private static int maxEdits(String word) {
+    int n = word.length();
+    if (n <= 2) return 0;
+    if (n <= 4) return 1;
+    if (n <= 8) return 2;
+    return 3;
+  }
+
+  /**
+   * Edit distance counting an adjacent transposition as one edit ("onoin"), or
+   * {@code max + 1} once it is known to exceed {@code max}. Words with different
+   * first letters are never considered close: people rarely mistype the first
+   * letter, and it keeps "potato" from matching "tomato".
+   */
+  static int editDistance(String a, String b, int max) {
+    if (Math.abs(a.length() - b.length()) > max) return max + 1;
+    if (a.isEmpty() || b.isEmpty() || a.charAt(0) != b.charAt(0)) return max + 1;
+    int[] prev2 = new int[b.length() + 1];
+    int[] prev = new int[b.length() + 1];
+    int[] cur = new int[b.length() + 1];
+    for (int j = 0; j <= b.length(); j++) prev[j] = j;
+    for (int i = 1; i <= a.length(); i++) {
+      cur[0] = i;
+      int rowMin = cur[0];
+      for (int j = 1; j <= b.length(); j++) {
+        int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+        int d = Math.min(Math.min(cur[j - 1] + 1, prev[j] + 1), prev[j - 1] + cost);
+        if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+          d = Math.min(d, prev2[j - 2] + 1);
+        }
+        cur[j] = d;
+        rowMin = Math.min(rowMin, d);
+      }
+      if (rowMin > max) return max + 1;
+      int[] tmp = prev2;
+      prev2 = prev;
+      prev = cur;
+      cur = tmp;
+    }
+    return Math.min(prev[b.length()], max + 1);
+  }
+
+  private Set<Long> priceCandidates(Double minPrice, Double maxPrice) {
+    NavigableMap<Double, Set<Long>> range;
+    if (minPrice != null && maxPrice != null) {
+      if (minPrice > maxPrice) return Set.of();
+      range = prices.subMap(minPrice, true, maxPrice, true);
+    } else if (minPrice != null) {
+      range = prices.tailMap(minPrice, true);
+    } else {
+      range = prices.headMap(maxPrice, true);
+    }
+    Set<Long> out = new HashSet<>();
+    range.values().forEach(out::addAll);
+    return out;
+  }
+
+  /** Intersects {@code acc} with {@code next}; {@code null} means "no constraint yet". */
+  private static Set<Long> intersect(Set<Long> acc, Set<Long> next) {
+    if (acc == null) return new HashSet<>(next);
+    Set<Long> small = acc.size() <= next.size() ? acc : next;
+    Set<Long> large = small == acc ? next : acc;
+    Set<Long> out = new HashSet<>();
+    for (Long id : small) {
+      if (large.contains(id)) out.add(id);
+    }
+    return out;
+  }
+
+  private static boolean matches(ProductResponse p, String nameNorm, Double minPrice, Double maxPrice) {
+    if (nameNorm != null && !lower(p.getName()).contains(nameNorm)) return false;
+    double price = priceOf(p);
+    if (minPrice != null && price < minPrice) return false;
+    if (maxPrice != null && price > maxPrice) return false;
+    return true;
+  }
+
+  private static Set<String> grams(String s) {
+    Set<String> out = new HashSet<>();
+    for (int i = 0; i + GRAM <= s.length(); i++) {
+      out.add(s.substring(i, i + GRAM));
+    }
+    return out;
+  }
+
+  /** Trigrams of {@code " " + word + " "}, so short words and word edges still produce grams. */
+  private static Set<String> paddedGrams(String word) {
+    return grams(" " + word + " ");
+  }
+
+  private static Set<String> documentTerms(ProductResponse p) {
+    Set<String> out = new HashSet<>();
+    out.addAll(tokenize(p.getName()));
+    out.addAll(tokenize(p.getCategory()));
+    out.addAll(tokenize(p.getDescription()));
+    return out;
+  }
+
+  /** Lower-cased words (letters/digits in any script). */
+  static List<String> tokenize(String s) {
+    if (s == null || s.isBlank()) return List.of();
+    List<String> out = new ArrayList<>();
+    for (String t : s.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{M}\\p{N}]+")) {
+      if (!t.isEmpty()) out.add(t);
+    }
+    return out;
+  }
+
+  private static String normalize(String s) {
+    return (s == null || s.isBlank()) ? null : s.trim().toLowerCase(Locale.ROOT);
+  }
+
+  private static String lower(String s) {
+    return s == null ? "" : s.toLowerCase(Locale.ROOT);
+  }
+
+  private static double priceOf(ProductResponse p) {
+    return p.getPrice() != null ? p.getPrice() : 0.0;
+  }
+}
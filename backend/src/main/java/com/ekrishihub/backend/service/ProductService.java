@@ -1,25 +1,54 @@
 // src/main/java/com/ekrishihub/backend/service/ProductService.java
 package com.ekrishihub.backend.service;
 
+import com.ekrishihub.backend.dto.CursorPage;
+import com.ekrishihub.backend.dto.ProductImportReport;
 import com.ekrishihub.backend.dto.ProductRequest;
 import com.ekrishihub.backend.dto.ProductResponse;
-import com.ekrishihub.backend.entity.AppUser;
+import com.ekrishihub.backend.dto.ProductSearchResponse;
+import com.ekrishihub.backend.dto.ProductSuggestion;
 import com.ekrishihub.backend.entity.Product;
+import com.ekrishihub.backend.repository.ProductJdbcRepository;
 import com.ekrishihub.backend.repository.ProductRepository;
-import com.ekrishihub.backend.repository.UserRepository;
+import com.ekrishihub.backend.util.CursorCodec;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
 
 @Service
 public class ProductService {
 
+  private static final int DEFAULT_PAGE_SIZE = 50;
+  private static final int MAX_PAGE_SIZE = 200;
+  private static final int IMPORT_BATCH_SIZE = 500;
+  private static final int IMPORT_MAX_REPORTED_ERRORS = 1000;
+
   @Autowired private ProductRepository productRepository;
-  @Autowired private UserRepository userRepository;
+  @Autowired private ProductJdbcRepository productJdbcRepository;
+  @Autowired private ObjectMapper objectMapper;
+  @Autowired private Validator validator;
+  @Autowired private UserIdentityCache userIdentities;
+  @Autowired private ProductSearchIndex searchIndex;
+  @Autowired private ProductCatalogCache catalogCache;
+  @Autowired private CatalogVersion catalogVersion;
+  @Autowired private ProductFacetSnapshot facetSnapshot;
+  @Autowired private ProductSuggestIndex suggestIndex;
+  @Autowired @Lazy private InventoryService inventoryService;   // @Lazy: it calls back into this service
 
   /* ----------------------------- CREATE ----------------------------- */
 
@@ -33,7 +62,7 @@ public class ProductService {
     p.setQuantity(req.getQuantity());
     p.setDescription(normalizeDescription(req.getDescription()));   // ✅ persist
     p.setOwnerId(ownerId);
-    return mapSafe(productRepository.save(p));
+    return saved(mapSafe(productRepository.save(p)));
   }
 
   /** Create for the currently authenticated farmer (email -> ownerId). */
@@ -47,33 +76,168 @@ public class ProductService {
     p.setQuantity(req.getQuantity());
     p.setDescription(normalizeDescription(req.getDescription()));   // ✅ persist
     p.setOwnerId(ownerId);
-    return mapSafe(productRepository.save(p));
+    return saved(mapSafe(productRepository.save(p)));
+  }
+
+  /**
+   * Bulk create for the authenticated farmer from a CSV or JSON-lines upload.
+   * The owner is resolved once, each row is validated like a single create, and
+   * valid rows are written in JDBC batches. Bad rows are reported, not fatal.
+   */
+  public ProductImportReport importForOwnerEmail(String email, BufferedReader body, boolean csv) throws IOException {
+    Long ownerId = resolveOwnerIdByEmail(email);
+    ProductImportReader reader = new ProductImportReader(body, csv, objectMapper);
+    ProductImportReport report = new ProductImportReport();
+    List<Product> batch = new ArrayList<>(IMPORT_BATCH_SIZE);
+
+    ProductImportReader.Row row;
+    while ((row = reader.next()) != null) {
+      report.setReceived(report.getReceived() + 1);
+      String error = row.error();
+      if (error == null) {
+        try {
+          validateForCreate(row.request());
+        } catch (ResponseStatusException ex) {
+          error = ex.getReason();
+        }
+      }
+      if (error != null) {
+        rejectImportRow(report, row.line(), error);
+        continue;
+      }
+      ProductRequest req = row.request();
+      Product p = new Product();
+      p.setName(req.getName().trim());
+      p.setCategory(req.getCategory().trim());
+      p.setPrice(req.getPrice());
+      p.setQuantity(req.getQuantity());
+      p.setDescription(normalizeDescription(req.getDescription()));
+      p.setOwnerId(ownerId);
+      // JDBC skips the entity's Bean Validation, so apply it here as save() would
+      String violation = validator.validate(p).stream()
+          .map(ConstraintViolation::getMessage).findFirst().orElse(null);
+      if (violation == null && p.getDescription().length() > 500) {
+        violation = "Description must be at most 500 characters";
+      }
+      if (violation != null) {
+        rejectImportRow(report, row.line(), violation);
+        continue;
+      }
+      batch.add(p);
+      if (batch.size() == IMPORT_BATCH_SIZE) {
+        flushImportBatch(batch, report);
+      }
+    }
+    flushImportBatch(batch, report);
+    return report;
   }
 
   /* ------------------------------ READ ------------------------------ */
 
+  @Transactional(readOnly = true)
   public List<ProductResponse> getAll() {
-    return productRepository.findAll().stream().map(this::mapSafe).collect(Collectors.toList());
+    return catalogCache.getAll(() ->
+        productRepository.findAllResponses());
+  }
+
+  /**
+   * Keyset page of the public catalog. {@code sort} is one of id (default),
+   * price, price_desc or name; {@code after} is a plain id shortcut for sort=id.
+   */
+  @Transactional(readOnly = true)
+  public CursorPage<ProductResponse> getPage(String cursor, Long after, Integer limit, String sort) {
+    String s = (sort == null || sort.isBlank()) ? "id" : sort.trim().toLowerCase();
+    int size = (limit == null) ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+    Pageable probe = PageRequest.of(0, size + 1);   // one extra row tells us whether there is a next page
+
+    String[] seek = null;
+    if (cursor != null && !cursor.isBlank()) {
+      seek = CursorCodec.decode(cursor, 3);
+      if (!s.equals(seek[0])) throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Cursor does not match sort");
+    }
+    Long afterId = seek != null ? parseLong(seek[2]) : after;
+
+    List<ProductResponse> rows = switch (s) {
+      case "id" -> productRepository.pageById(afterId, probe);
+      case "price" -> productRepository.pageByPriceAsc(seek != null ? parseDouble(seek[1]) : null, afterId, probe);
+      case "price_desc" -> productRepository.pageByPriceDesc(seek != null ? parseDouble(seek[1]) : null, afterId, probe);
+      case "name" -> productRepository.pageByNameAsc(seek != null ? seek[1] : null, afterId, probe);
+      default -> throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid sort (use id, price, price_desc or name)");
+    };
+
+    String next = null;
+    if (rows.size() > size) {
+      rows = rows.subList(0, size);
+      ProductResponse last = rows.get(size - 1);
+      Object key = switch (s) {
+        case "price", "price_desc" -> last.getPrice();
+        case "name" -> last.getName();
+        default -> last.getId();
+      };
+      next = CursorCodec.encode(s, key, last.getId());
+    }
+    return new CursorPage<>(rows, next);
   }
 
+  @Transactional(readOnly = true)
   public List<ProductResponse> getByOwnerEmail(String email) {
     Long ownerId = resolveOwnerIdByEmail(email);
-    return productRepository.findByOwnerId(ownerId).stream().map(this::mapSafe).collect(Collectors.toList());
+    return catalogCache.getByOwner(ownerId, oid ->
+        productRepository.findResponsesByOwnerId(oid));
   }
 
+  @Transactional(readOnly = true)
   public ProductResponse getOneForOwnerEmail(String email, Long id) {
     Long ownerId = resolveOwnerIdByEmail(email);
-    Product p = productRepository.findById(id)
-        .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Product not found"));
+    ProductResponse p = catalogCache.getById(id, pid -> productRepository.findResponseById(pid).orElse(null));
+    if (p == null) {
+      throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Product not found");
+    }
     if (p.getOwnerId() == null || !ownerId.equals(p.getOwnerId())) {
       throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Not your product");
     }
-    return mapSafe(p);
+    return p;
+  }
+
+  /**
+   * Catalog search, answered from the in-memory index. Falls back to the
+   * LIKE query only until the index has been loaded at startup. {@code fuzzy}
+   * tolerates typos and Hindi/Marathi spellings of crop names and ranks by
+   * match quality; the startup fallback is always exact.
+   */
+  public List<ProductResponse> search(String name, String q, String category,
+                                      Double minPrice, Double maxPrice, boolean fuzzy) {
+    if (searchIndex.isReady()) {
+      return fuzzy
+          ? searchIndex.fuzzySearch(name, q, category, minPrice, maxPrice)
+          : searchIndex.search(name, q, category, minPrice, maxPrice);
+    }
+    return productRepository.searchProducts(blankToNull(name), blankToNull(category), minPrice, maxPrice);
+  }
+
+  /** Search plus category counts, price histogram and stock split for the same hits. */
+  public ProductSearchResponse searchWithFacets(String name, String q, String category,
+                                                Double minPrice, Double maxPrice, Integer buckets,
+                                                boolean fuzzy) {
+    List<ProductResponse> hits = search(name, q, category, minPrice, maxPrice, fuzzy);
+    if (searchIndex.isReady()) {
+      return new ProductSearchResponse(hits, facetSnapshot.facets(hits, minPrice, maxPrice, buckets));
+    }
+    return new ProductSearchResponse(hits, ProductFacetSnapshot.facetsOf(hits, minPrice, maxPrice, buckets));
+  }
+
+  /** Search-box autocomplete; served from memory only. */
+  public List<ProductSuggestion> suggest(String prefix, Integer limit) {
+    return suggestIndex.suggest(prefix, limit);
   }
 
   /* ----------------------------- UPDATE ----------------------------- */
 
-  /** Partial update for an owned product. Only provided fields are updated. */
+  /**
+   * Partial update for an owned product. Only provided fields are updated; a
+   * new quantity goes through {@link InventoryService#restock} so it cannot
+   * undo reservations made while the edit was in progress.
+   */
   public ProductResponse updateForOwnerEmail(String email, Long id, ProductRequest req) {
     Long ownerId = resolveOwnerIdByEmail(email);
     Product p = productRepository.findById(id)
@@ -98,7 +262,6 @@ public class ProductService {
     }
     if (req.getQuantity() != null) {
       if (req.getQuantity() < 0) throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Quantity cannot be negative");
-      p.setQuantity(req.getQuantity());
     }
     if (req.getDescription() != null) {                               // ✅ update
       String d = normalizeDescription(req.getDescription());
@@ -106,7 +269,14 @@ public class ProductService {
       p.setDescription(d);
     }
 
-    return mapSafe(productRepository.save(p));
+    // Stock moves as a difference from what was read, never as an overwrite
+    if (req.getQuantity() != null) {
+      int read = p.getQuantity() != null ? p.getQuantity() : 0;
+      inventoryService.restock(id, read, req.getQuantity());
+    }
+    productRepository.updateDetails(id, p.getName(), p.getCategory(), p.getDescription(), p.getPrice());
+    return saved(productRepository.findResponseById(id)
+        .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Product not found")));
   }
 
   /* ----------------------------- DELETE ----------------------------- */
@@ -119,6 +289,71 @@ public class ProductService {
       throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Not your product");
     }
     productRepository.deleteById(id);
+    deleted(id, p.getOwnerId());
+  }
+
+  /* ------------------------- INDEX / CACHE -------------------------- */
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void loadSearchIndex() {
+    List<ProductResponse> all = getAll();
+    searchIndex.rebuild(all);
+    suggestIndex.rebuild(all);
+    catalogVersion.bump();
+  }
+
+  /**
+   * Re-reads one product after a write made outside this service that only
+   * moved its stock (order reservations and releases). Patches its index
+   * entries, cached copy and facet stock but leaves the catalog version and
+   * the full listing alone, so placing an order neither invalidates every
+   * listing ETag nor forces a facet rebuild.
+   */
+  public void refreshStockFromStore(Long id) {
+    productRepository.findResponseById(id).ifPresentOrElse(resp -> {
+      searchIndex.upsert(resp);
+      suggestIndex.upsert(resp);
+      catalogCache.onStockChanged(resp);
+      facetSnapshot.onStockChanged(resp.getId(), resp.getQuantity());
+      catalogVersion.stockChanged();
+    }, () -> deleted(id, null));
+  }
+
+  /** Every successful write goes through here so the index and cache stay in step. */
+  private ProductResponse saved(ProductResponse resp) {
+    searchIndex.upsert(resp);
+    suggestIndex.upsert(resp);
+    catalogCache.onSaved(resp);
+    catalogVersion.bump();
+    return resp;
+  }
+
+  private void rejectImportRow(ProductImportReport report, long line, String message) {
+    report.setFailed(report.getFailed() + 1);
+    if (report.getErrors().size() < IMPORT_MAX_REPORTED_ERRORS) {
+      report.getErrors().add(new ProductImportReport.RowError(line, message));
+    }
+  }
+
+  private void flushImportBatch(List<Product> batch, ProductImportReport report) {
+    if (batch.isEmpty()) return;
+    productJdbcRepository.insertBatch(batch);
+    for (Product p : batch) {
+      ProductResponse resp = mapSafe(p);
+      searchIndex.upsert(resp);
+      suggestIndex.upsert(resp);
+      catalogCache.onSaved(resp);
+    }
+    catalogVersion.bump();
+    report.setImported(report.getImported() + batch.size());
+    batch.clear();
+  }
+
+  private void deleted(Long id, Long ownerId) {
+    searchIndex.remove(id);
+    suggestIndex.remove(id);
+    catalogCache.onDeleted(id, ownerId);
+    catalogVersion.bump();
   }
 
   /* ----------------------------- HELPERS ---------------------------- */
@@ -137,6 +372,26 @@ public class ProductService {
       throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Description is required");
   }
 
+  private Long parseLong(String s) {
+    try {
+      return Long.valueOf(s);
+    } catch (NumberFormatException ex) {
+      throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor");
+    }
+  }
+
+  private Double parseDouble(String s) {
+    try {
+      return Double.valueOf(s);
+    } catch (NumberFormatException ex) {
+      throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor");
+    }
+  }
+
+  private String blankToNull(String s) {
+    return (s == null || s.isBlank()) ? null : s.trim();
+  }
+
   private String normalizeDescription(String d) {
     return d == null ? "" : d.trim();
   }
@@ -145,8 +400,8 @@ public class ProductService {
     if (email == null || email.isBlank()) {
       throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Unauthorized");
     }
-    return userRepository.findByEmailIgnoreCase(email)
-        .map(AppUser::getId)
+    return userIdentities.find(email)
+        .map(UserIdentityCache.Identity::id)
         .orElseThrow(() -> new ResponseStatusException(HttpStatus.UNAUTHORIZED, "User not found"));
   }
 
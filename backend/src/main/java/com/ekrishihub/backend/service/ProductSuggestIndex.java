@@ -0,0 +1,310 @@
+// src/main/java/com/ekrishihub/backend/service/ProductSuggestIndex.java
+package com.ekrishihub.backend.service;
+
+import com.ekrishihub.backend.dto.ProductResponse;
+import com.ekrishihub.backend.dto.ProductSuggestion;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Autocomplete for the search box: distinct product names and categories,
+ * looked up by prefix in a sorted map and ranked by the stock behind them.
+ *
+ * A label is reachable from the start of any of its words ("oni" finds
+ * "Red Onion"). Short prefixes cover most of the catalog, so the ranked
+ * result of each prefix asked for is kept and patched in place on writes
+ * rather than recomputed per keystroke. {@link ProductService} feeds it the
+ * same upserts/removes as {@link ProductSearchIndex}; nothing here touches
+ * the database.
+ */
+@Component
+public class ProductSuggestIndex {
+
+  public static final int DEFAULT_LIMIT = 8;
+  public static final int MAX_LIMIT = 20;
+
+  /** Entries kept per cached prefix; the slack above MAX_LIMIT absorbs stock decreases. */
+  private static final int KEEP = MAX_LIMIT * 2;
+  private static final int MAX_CACHED_PREFIXES = 4096;
+
+  private static final Pattern WORD = Pattern.compile("[\\p{L}\\p{M}\\p{N}]+");
+
+  /** Most stock first, then most listings, then alphabetical. */
+  private static final Comparator<Label> RANK =
+      Comparator.<Label>comparingLong(l -> -l.stock)
+          .thenComparingInt(l -> -l.listings)
+          .thenComparing(l -> l.key)
+          .thenComparing(l -> l.id.type());
+
+  private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+  /** Search key (lower-cased label, or its suffix from a later word) -> labels. */
+  private final TreeMap<String, Set<Label>> keys = new TreeMap<>();
+  private final Map<LabelId, Label> labels = new HashMap<>();
+  /** What each product currently contributes, so an update can be subtracted. */
+  private final Map<Long, Contribution> byProduct = new HashMap<>();
+
+  /** Ranked labels per prefix already asked for; guarded by its own monitor. */
+  private final LinkedHashMap<String, TopList> topByPrefix =
+      new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, TopList> eldest) {
+          return size() > MAX_CACHED_PREFIXES;
+        }
+      };
+
+  /* ----------------------------- WRITE ----------------------------- */
+
+  public void rebuild(Collection<ProductResponse> all) {
+    lock.writeLock().lock();
+    try {
+      keys.clear();
+      labels.clear();
+      byProduct.clear();
+      synchronized (topByPrefix) {
+        topByPrefix.clear();
+      }
+      for (ProductResponse p : all) {
+        addUnlocked(p);
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  public void upsert(ProductResponse p) {
+    if (p == null || p.getId() == null) return;
+    lock.writeLock().lock();
+    try {
+      removeUnlocked(p.getId());
+      addUnlocked(p);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  public void remove(Long id) {
+    if (id == null) return;
+    lock.writeLock().lock();
+    try {
+      removeUnlocked(id);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /* ------------------------------ READ ------------------------------ */
+
+  /** Up to {@code limit} names/categories with a word starting with {@code prefix} (case-insensitive). */
+  public List<ProductSuggestion> suggest(String prefix, Integer limit) {
+    String p = prefix == null ? "" : prefix.trim().toLowerCase(Locale.ROOT).replaceAll("\\s+", " ");
+    if (p.isEmpty()) return List.of();
+    int k = limit == null ? DEFAULT_LIMIT : Math.max(1, Math.min(limit, MAX_LIMIT));
+
+    lock.readLock().lock();
+    try {
+      TopList top;
+      synchronized (topByPrefix) {
+        top = topByPrefix.get(p);
+      }
+      if (top == null) {
+        top = compute(p);
+        synchronized (topByPrefix) {
+          topByPrefix.put(p, top);
+        }
+      }
+      List<ProductSuggestion> out = new ArrayList<>(Math.min(k, top.labels.size()));
+      for (Label l : top.labels) {
+        if (out.size() == k) break;
+        out.add(new ProductSuggestion(l.display, l.id.type(), l.listings, l.stock));
+      }
+      return out;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /* ----------------------------- HELPERS ---------------------------- */
+
+  /** Full scan of the prefix range, keeping the best {@link #KEEP} in a bounded heap. */
+  private TopList compute(String prefix) {
+    PriorityQueue<Label> heap = new PriorityQueue<>(KEEP + 1, RANK.reversed());
+    Set<Label> seen = new HashSet<>();
+    for (Set<Label> ls : keys.subMap(prefix, prefix + Character.MAX_VALUE).values()) {
+      for (Label l : ls) {
+        if (!seen.add(l)) continue;
+        heap.add(l);
+        if (heap.size() > KEEP) heap.poll();
+      }
+    }
+    List<Label> ranked = new ArrayList<>(heap);
+    ranked.sort(RANK);
+    return new TopList(ranked, seen.size() <= KEEP);
+  }
+
+  private void addUnlocked(ProductResponse p) {
+    int stock = p.getQuantity() != null ? Math.max(0, p.getQuantity()) : 0;
+    Label name = attach(labelId(p.getName(), ProductSuggestion.PRODUCT), p.getName(), stock);
+    Label category = attach(labelId(p.getCategory(), ProductSuggestion.CATEGORY), p.getCategory(), stock);
+    byProduct.put(p.getId(), new Contribution(name, category, stock));
+  }
+
+  private void removeUnlocked(Long id) {
+    Contribution old = byProduct.remove(id);
+    if (old == null) return;
+    detach(old.name(), old.stock());
+    detach(old.category(), old.stock());
+  }
+
+  private Label attach(LabelId id, String display, int stock) {
+    if (id == null) return null;
+    Label l = labels.get(id);
+    if (l == null) {
+      l = new Label(id, display.trim());
+      labels.put(id, l);
+      for (String key : searchKeys(id.key())) {
+        keys.computeIfAbsent(key, x -> new HashSet<>()).add(l);
+      }
+    }
+    l.listings++;
+    l.stock += stock;
+    promote(l);
+    return l;
+  }
+
+  private void detach(Label l, int stock) {
+    if (l == null) return;
+    l.listings--;
+    l.stock -= stock;
+    boolean gone = l.listings <= 0;
+    if (gone) {
+      labels.remove(l.id);
+      for (String key : searchKeys(l.key)) {
+        Set<Label> ls = keys.get(key);
+        if (ls == null) continue;
+        ls.remove(l);
+        if (ls.isEmpty()) keys.remove(key);
+      }
+    }
+    demote(l, gone);
+  }
+
+  /**
+   * {@code l} gained stock/listings (or is new), so it can only move up. A list
+   * that is not complete only takes it if it beats the last kept entry, since
+   * anything outside may rank between the two.
+   */
+  private void promote(Label l) {
+    synchronized (topByPrefix) {
+      for (String prefix : cachedPrefixesOf(l)) {
+        TopList top = topByPrefix.get(prefix);
+        List<Label> ls = top.labels;
+        if (!ls.contains(l)) {
+          if (!top.complete && RANK.compare(l, ls.get(ls.size() - 1)) > 0) continue;
+          ls.add(l);
+        }
+        ls.sort(RANK);
+        if (ls.size() > KEEP) {
+          ls.remove(ls.size() - 1);
+          top.complete = false;
+        }
+      }
+    }
+  }
+
+  /**
+   * {@code l} lost stock/listings. While it still ranks above the last kept
+   * entry nothing outside the list can overtake it; otherwise it leaves the list,
+   * and a list that can no longer fill a page is dropped and recomputed on demand.
+   */
+  private void demote(Label l, boolean gone) {
+    synchronized (topByPrefix) {
+      for (String prefix : cachedPrefixesOf(l)) {
+        TopList top = topByPrefix.get(prefix);
+        List<Label> ls = top.labels;
+        if (!ls.contains(l)) continue;
+        ls.sort(RANK);
+        boolean last = ls.get(ls.size() - 1) == l;
+        if (gone || (last && !top.complete)) {
+          ls.remove(l);
+          if (!top.complete && ls.size() < MAX_LIMIT) topByPrefix.remove(prefix);
+        }
+      }
+    }
+  }
+
+  /** Cached prefixes that {@code l} falls under (every prefix of each of its search keys). */
+  private List<String> cachedPrefixesOf(Label l) {
+    List<String> out = new ArrayList<>();
+    if (topByPrefix.isEmpty()) return out;
+    Set<String> seen = new HashSet<>();
+    for (String key : searchKeys(l.key)) {
+      for (int i = 1; i <= key.length(); i++) {
+        String prefix = key.substring(0, i);
+        if (seen.add(prefix) && topByPrefix.containsKey(prefix)) out.add(prefix);
+      }
+    }
+    return out;
+  }
+
+  private static LabelId labelId(String text, String type) {
+    if (text == null || text.isBlank()) return null;
+    return new LabelId(text.trim().toLowerCase(Locale.ROOT).replaceAll("\\s+", " "), type);
+  }
+
+  /** The label itself plus its suffix from each later word. */
+  private static Set<String> searchKeys(String key) {
+    Set<String> out = new HashSet<>();
+    out.add(key);
+    Matcher m = WORD.matcher(key);
+    while (m.find()) {
+      out.add(key.substring(m.start()));
+    }
+    return out;
+  }
+
+  private record LabelId(String key, String type) {}
+
+  private record Contribution(Label name, Label category, int stock) {}
+
+  /** One distinct name or category with the listings and stock behind it. */
+  private static final class Label {
+    final LabelId id;
+    final String key;
+    final String display;   // spelling of the first listing seen
+    int listings;
+    long stock;
+
+    Label(LabelId id, String display) {
+      this.id = id;
+      this.key = id.key();
+      this.display = display;
+    }
+  }
+
+  private static final class TopList {
+    final List<Label> labels;
+    /** True when {@link #labels} holds every label under the prefix, not just the best. */
+    boolean complete;
+
+    TopList(List<Label> labels, boolean complete) {
+      this.labels = labels;
+      this.complete = complete;
+    }
+  }
+}
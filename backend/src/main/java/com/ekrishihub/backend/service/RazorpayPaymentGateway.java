@@ -0,0 +1,188 @@
+// src/main/java/com/ekrishihub/backend/service/RazorpayPaymentGateway.java
+package com.ekrishihub.backend.service;
+
+import com.ekrishihub.backend.util.CircuitBreaker;
+import com.razorpay.RazorpayClient;
+import com.razorpay.RazorpayException;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.json.JSONObject;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Razorpay behind one long-lived client.
+ *
+ * The SDK keeps a single OkHttp client (and its connection pool) per process
+ * and rebuilds it on every {@code new RazorpayClient}, so the client is built
+ * once here. Calls run on a small dedicated pool: its size and queue are the
+ * bulkhead (overflow is refused with 503 instead of piling up request
+ * threads), {@code Future.get} bounds the wait, and a circuit breaker stops
+ * calling out for a while after repeated failures. Meters are published as
+ * {@code payment.gateway.*}.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.payment.gateway", havingValue = "razorpay", matchIfMissing = true)
+public class RazorpayPaymentGateway implements PaymentGateway {
+
+  private final String keyId;
+  private final RazorpayClient client;       // null when keys are missing
+  private final ThreadPoolExecutor pool;
+  private final CircuitBreaker breaker;
+  private final long timeoutMillis;
+
+  public RazorpayPaymentGateway(
+      MeterRegistry meters,
+      @Value("${razorpay.key_id:}") String keyId,
+      @Value("${razorpay.key_secret:}") String keySecret,
+      @Value("${app.payment.max-concurrent:16}") int maxConcurrent,
+      @Value("${app.payment.max-queued:32}") int maxQueued,
+      @Value("${app.payment.timeout-ms:10000}") long timeoutMillis,
+      @Value("${app.payment.breaker.failure-threshold:5}") int failureThreshold,
+      @Value("${app.payment.breaker.open-seconds:30}") long openSeconds
+  ) {
+    this.keyId = keyId;
+    this.client = buildClient(keyId, keySecret);
+    this.timeoutMillis = timeoutMillis;
+    this.breaker = new CircuitBreaker(failureThreshold, Duration.ofSeconds(openSeconds));
+
+    AtomicInteger n = new AtomicInteger();
+    this.pool = new ThreadPoolExecutor(maxConcurrent, maxConcurrent, 60, TimeUnit.SECONDS,
+        new ArrayBlockingQueue<>(maxQueued), r -> {
+          Thread t = new Thread(r, "payment-gateway-" + n.incrementAndGet());
+          t.setDaemon(true);
+          return t;
+        });
+    this.pool.allowCoreThreadTimeOut(true);
+
+    Gauge.builder("payment.gateway.active", pool, ThreadPoolExecutor::getActiveCount).register(meters);
+    Gauge.builder("payment.gateway.queued", pool, p -> p.getQueue().size()).register(meters);
+    Gauge.builder("payment.gateway.circuit.open", breaker,
+        b -> b.state() == CircuitBreaker.State.CLOSED ? 0 : 1).register(meters);
+    FunctionCounter.builder("payment.gateway.circuit.rejected", breaker, CircuitBreaker::rejectedCount)
+        .register(meters);
+  }
+
+  @Override
+  public String keyId() {
+    return keyId;
+  }
+
+  @Override
+  public boolean isConfigured() {
+    return client != null;
+  }
+
+  @Override
+  public GatewayOrder createOrder(long amountPaise, String currency, String receipt) {
+    return call("Unable to create payment order", () -> {
+      JSONObject req = new JSONObject();
+      req.put("amount", amountPaise);
+      req.put("currency", currency);
+      req.put("receipt", receipt);
+      com.razorpay.Order o = client.orders.create(req);
+      Object amount = o.get("amount");
+      return new GatewayOrder(
+          String.valueOf(o.get("id")),
+          amount instanceof Number num ? num.longValue() : amountPaise,
+          String.valueOf(o.get("currency")),
+          receipt,
+          String.valueOf(o.get("status")));
+    });
+  }
+
+  @Override
+  public GatewayOrderState fetchOrderState(String gatewayOrderId) {
+    return call("Unable to fetch payment order", () -> {
+      com.razorpay.Order o = client.orders.fetch(gatewayOrderId);
+      String status = String.valueOf(o.get("status"));
+      String paymentId = null;
+      if ("paid".equalsIgnoreCase(status)) {
+        for (com.razorpay.Payment p : client.orders.fetchPayments(gatewayOrderId)) {
+          if ("captured".equalsIgnoreCase(String.valueOf(p.get("status")))) {
+            paymentId = String.valueOf(p.get("id"));
+            break;
+          }
+        }
+      }
+      return new GatewayOrderState(gatewayOrderId, status, paymentId);
+    });
+  }
+
+  @PreDestroy
+  void shutdown() {
+    pool.shutdownNow();
+  }
+
+  /* ----------------------------- HELPERS ---------------------------- */
+
+  private <T> T call(String failure, Callable<T> work) {
+    if (client == null) {
+      throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Payment gateway not configured");
+    }
+    if (!breaker.tryAcquire()) {
+      throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Payment gateway temporarily unavailable");
+    }
+
+    Future<T> f;
+    try {
+      f = pool.submit(work);
+    } catch (RejectedExecutionException ex) {
+      breaker.release();
+      throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Payment gateway busy, try again");
+    }
+
+    try {
+      T result = f.get(timeoutMillis, TimeUnit.MILLISECONDS);
+      breaker.onSuccess();
+      return result;
+    } catch (TimeoutException ex) {
+      f.cancel(true);
+      breaker.onFailure();
+      throw new ResponseStatusException(HttpStatus.GATEWAY_TIMEOUT, "Payment gateway timed out");
+    } catch (InterruptedException ex) {
+      f.cancel(true);
+      breaker.release();
+      Thread.currentThread().interrupt();
+      throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Interrupted");
+    } catch (ExecutionException ex) {
+      Throwable cause = ex.getCause();
+      // A rejected request means the provider is up; only outages count against the circuit
+      if (cause instanceof RazorpayException && String.valueOf(cause.getMessage()).startsWith("BAD_REQUEST_ERROR")) {
+        breaker.onSuccess();
+      } else {
+        breaker.onFailure();
+      }
+      log.warn("Razorpay call failed: {}", String.valueOf(cause));
+      throw new ResponseStatusException(HttpStatus.BAD_GATEWAY, failure, cause);
+    }
+  }
+
+  private static RazorpayClient buildClient(String keyId, String keySecret) {
+    if (keyId == null || keyId.isBlank() || keySecret == null || keySecret.isBlank()) return null;
+    try {
+      return new RazorpayClient(keyId, keySecret);
+    } catch (RazorpayException ex) {
+      log.error("Razorpay client could not be created; payments disabled", ex);
+      return null;
+    }
+  }
+}
@@ -0,0 +1,236 @@
+// src/main/java/com/ekrishihub/backend/service/SalesRollupService.java
+package com.ekrishihub.backend.service;
+
+import com.ekrishihub.backend.dto.FarmerSalesResponse;
+import com.ekrishihub.backend.dto.ProductSales;
+import com.ekrishihub.backend.dto.SalesDay;
+import com.ekrishihub.backend.entity.Order;
+import com.ekrishihub.backend.entity.OrderItem;
+import com.ekrishihub.backend.repository.FarmerSalesDailyRepository;
+import com.ekrishihub.backend.repository.FarmerSalesJdbcRepository;
+import com.ekrishihub.backend.repository.FarmerSalesJdbcRepository.Delta;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Farmer sales rollups ({@code farmer_sales_daily}).
+ *
+ * OrderService takes a {@link #snapshot} of an order before and after every
+ * change that can move money between buckets (placement, quantity edit,
+ * payment status, delete) and hands both to {@link #record}; only the
+ * difference is written, in the caller's transaction. A scheduled repair
+ * recomputes the recent window from {@code orders} in case a delta was ever
+ * lost, and the table is backfilled once on first start. Both rebuild one
+ * day per short transaction, oldest first, and only on the instance that
+ * holds the database's rebuild lock; the others skip the run.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SalesRollupService {
+
+  private static final int DEFAULT_RANGE_DAYS = 30;
+  private static final int MAX_RANGE_DAYS = 366;
+
+  private final FarmerSalesJdbcRepository salesJdbcRepository;
+  private final FarmerSalesDailyRepository salesRepository;
+  private final UserIdentityCache userIdentities;
+  private final TransactionTemplate tx;
+
+  @Value("${app.sales.rollup.repair-days:7}")
+  private int repairDays;
+
+  /** What one order currently adds to the rollups: nothing if it has FAILED. */
+  public record Contribution(boolean paid, LocalDate day, List<Line> lines) {
+    static final Contribution NONE = new Contribution(false, null, List.of());
+  }
+
+  public record Line(Long farmerId, Long productId, int units, double amount) {}
+
+  /* ----------------------------- WRITE ----------------------------- */
+
+  /**
+   * The order's contribution as it stands. {@code items} are its checkout lines
+   * (attributed to each product's owner); empty for single-product orders.
+   */
+  public Contribution snapshot(Order o, List<OrderItem> items) {
+    return o == null ? Contribution.NONE : snapshot(o, items, o.getPaymentStatus());
+  }
+
+  /** {@link #snapshot(Order, List)} as if the order's payment status were {@code paymentStatus}. */
+  public Contribution snapshot(Order o, List<OrderItem> items, String paymentStatus) {
+    if (o == null || !InventoryService.holdsStock(paymentStatus)) return Contribution.NONE;
+    boolean paid = "PAID".equalsIgnoreCase(String.valueOf(paymentStatus));
+    LocalDate day = (o.getCreatedAt() != null ? o.getCreatedAt().toLocalDate() : LocalDate.now());
+    List<Line> lines = new ArrayList<>();
+    if (items.isEmpty()) {
+      if (o.getFarmerId() != null) {
+        lines.add(new Line(o.getFarmerId(), o.getProductId(), o.getQuantity(), o.getTotalAmount()));
+      }
+    } else {
+      for (OrderItem li : items) {
+        Long owner = li.getProduct().getOwnerId();
+        if (owner != null) {
+          lines.add(new Line(owner, li.getProduct().getId(), li.getQuantity(), li.getQuantity() * li.getPrice()));
+        }
+      }
+    }
+    return new Contribution(paid, day, lines);
+  }
+
+  /** Writes {@code after - before}; either may be null (order created / deleted). */
+  @Transactional
+  public void record(Contribution before, Contribution after) {
+    Map<String, Acc> byKey = new TreeMap<>();
+    accumulate(before, -1, byKey);
+    accumulate(after, +1, byKey);
+    write(byKey);
+  }
+
+  /** {@link #record} for many orders at once, netted into one batch. */
+  @Transactional
+  public void recordAll(List<Contribution> before, List<Contribution> after) {
+    Map<String, Acc> byKey = new TreeMap<>();
+    before.forEach(c -> accumulate(c, -1, byKey));
+    after.forEach(c -> accumulate(c, +1, byKey));
+    write(byKey);
+  }
+
+  /* ----------------------------- REPAIR ----------------------------- */
+
+  /** Recomputes the last few days from the orders tables (catches anything a delta missed). */
+  @Scheduled(cron = "${app.sales.rollup.repair-cron:0 30 3 * * *}")
+  public void repairRecent() {
+    LocalDate from = LocalDate.now().minusDays(repairDays);
+    Integer rows = salesJdbcRepository.whileRebuildLocked(() -> rebuildDays(from));
+    if (rows == null) {
+      log.info("Sales rollup repair skipped: another instance is rebuilding");
+      return;
+    }
+    log.info("Sales rollups rebuilt from {} ({} rows)", from, rows);
+  }
+
+  /** First start with the rollup table empty: build it from all order history. */
+  @EventListener(ApplicationReadyEvent.class)
+  public void backfillIfEmpty() {
+    if (salesRepository.count() > 0) return;
+    Integer rows = salesJdbcRepository.whileRebuildLocked(() ->
+        // Another instance may have filled it while we waited to start
+        salesRepository.count() > 0 ? null : rebuildDays(salesJdbcRepository.oldestOrderDay()));
+    if (rows != null) log.info("Sales rollups backfilled ({} rows)", rows);
+  }
+
+  /** Rebuilds {@code from} through today, one transaction per day; returns rows written. */
+  private int rebuildDays(LocalDate from) {
+    int rows = 0;
+    for (LocalDate day = from, today = LocalDate.now(); !day.isAfter(today); day = day.plusDays(1)) {
+      LocalDate d = day;
+      Integer n = tx.execute(s -> salesJdbcRepository.rebuildDay(d));
+      rows += (n != null ? n : 0);
+    }
+    return rows;
+  }
+
+  /* ------------------------------ READ ------------------------------ */
+
+  /** Dashboard for the farmer; defaults to the last 30 days, at most a year. */
+  @Transactional(readOnly = true)
+  public FarmerSalesResponse salesForFarmerEmail(String farmerEmail, LocalDate from, LocalDate to) {
+    if (farmerEmail == null || farmerEmail.isBlank()) {
+      throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Unauthorized");
+    }
+    Long farmerId = userIdentities.find(farmerEmail)
+        .map(UserIdentityCache.Identity::id)
+        .orElseThrow(() -> new ResponseStatusException(HttpStatus.UNAUTHORIZED, "User not found"));
+
+    LocalDate end = (to != null) ? to : LocalDate.now();
+    LocalDate start = (from != null) ? from : end.minusDays(DEFAULT_RANGE_DAYS - 1);
+    if (start.isAfter(end)) {
+      throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "from must not be after to");
+    }
+    if (ChronoUnit.DAYS.between(start, end) >= MAX_RANGE_DAYS) {
+      throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Range is limited to " + MAX_RANGE_DAYS + " days");
+    }
+
+    List<SalesDay> days = salesRepository.sumByDay(farmerId, start, end);
+    List<ProductSales> products = salesRepository.sumByProduct(farmerId, start, end);
+
+    FarmerSalesResponse resp = new FarmerSalesResponse();
+    resp.setFrom(start);
+    resp.setTo(end);
+    resp.setDays(days);
+    resp.setProducts(products);
+    for (SalesDay d : days) {
+      resp.setPaidAmount(resp.getPaidAmount() + d.getPaidAmount());
+      resp.setPaidUnits(resp.getPaidUnits() + d.getPaidUnits());
+      resp.setPendingAmount(resp.getPendingAmount() + d.getPendingAmount());
+      resp.setPendingUnits(resp.getPendingUnits() + d.getPendingUnits());
+    }
+    return resp;
+  }
+
+  /* ----------------------------- HELPERS ---------------------------- */
+
+  private void write(Map<String, Acc> byKey) {
+    List<Delta> deltas = new ArrayList<>(byKey.size());
+    for (Acc d : byKey.values()) {
+      if (d.isZero()) continue;
+      deltas.add(new Delta(d.farmerId, d.day, d.productId,
+          d.paidOrders, d.paidUnits, d.paidAmount, d.pendingOrders, d.pendingUnits, d.pendingAmount));
+    }
+    salesJdbcRepository.apply(deltas);
+  }
+
+  private static void accumulate(Contribution c, int sign, Map<String, Acc> byKey) {
+    if (c == null) return;
+    for (Line l : c.lines()) {
+      // Zero-padded so the map iterates in unique-key order (farmer, day, product): stable lock order
+      String key = String.format("%019d|%s|%019d", l.farmerId(), c.day(), l.productId());
+      Acc d = byKey.computeIfAbsent(key, k -> new Acc(l.farmerId(), c.day(), l.productId()));
+      if (c.paid()) {
+        d.paidOrders += sign;
+        d.paidUnits += (long) sign * l.units();
+        d.paidAmount += sign * l.amount();
+      } else {
+        d.pendingOrders += sign;
+        d.pendingUnits += (long) sign * l.units();
+        d.pendingAmount += sign * l.amount();
+      }
+    }
+  }
+
+  private static final class Acc {
+    final long farmerId;
+    final LocalDate day;
+    final long productId;
+    long paidOrders, paidUnits, pendingOrders, pendingUnits;
+    double paidAmount, pendingAmount;
+
+    Acc(long farmerId, LocalDate day, long productId) {
+      this.farmerId = farmerId;
+      this.day = day;
+      this.productId = productId;
+    }
+
+    boolean isZero() {
+      return paidOrders == 0 && paidUnits == 0 && pendingOrders == 0 && pendingUnits == 0
+          && paidAmount == 0 && pendingAmount == 0;
+    }
+  }
+}
@@ -0,0 +1,76 @@
+// src/main/java/com/ekrishihub/backend/service/StubPaymentGateway.java
+package com.ekrishihub.backend.service;
+
+import com.ekrishihub.backend.util.BoundedCache;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-process gateway for tests, local runs and load tests
+ * ({@code app.payment.gateway=stub}). Hands out {@code order_stub_N} ids after
+ * an optional fixed delay standing in for the provider round trip. Orders
+ * stay "created" until {@link #markPaid} is called; only paid ones are
+ * remembered, in a bounded map ({@code max-orders}, kept for
+ * {@code paid-ttl-hours}), so a long load test cannot grow it without limit.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.payment.gateway", havingValue = "stub")
+public class StubPaymentGateway implements PaymentGateway {
+
+  private final AtomicLong ids = new AtomicLong();
+  private final BoundedCache<String, GatewayOrderState> paid;
+  private final long latencyMillis;
+
+  public StubPaymentGateway(
+      @Value("${app.payment.stub.latency-ms:0}") long latencyMillis,
+      @Value("${app.payment.stub.max-orders:10000}") int maxOrders,
+      @Value("${app.payment.stub.paid-ttl-hours:24}") long paidTtlHours
+  ) {
+    this.latencyMillis = latencyMillis;
+    this.paid = new BoundedCache<>(maxOrders, Duration.ofHours(paidTtlHours));
+    log.warn("Using the stub payment gateway; no real payments will be created");
+  }
+
+  @Override
+  public String keyId() {
+    return "rzp_test_stub";
+  }
+
+  @Override
+  public boolean isConfigured() {
+    return true;
+  }
+
+  @Override
+  public GatewayOrder createOrder(long amountPaise, String currency, String receipt) {
+    pause();
+    return new GatewayOrder("order_stub_" + ids.incrementAndGet(), amountPaise, currency, receipt, "created");
+  }
+
+  @Override
+  public GatewayOrderState fetchOrderState(String gatewayOrderId) {
+    pause();
+    GatewayOrderState state = paid.get(gatewayOrderId);
+    return state != null ? state : new GatewayOrderState(gatewayOrderId, "created", null);
+  }
+
+  /** Simulates the customer completing payment for {@code gatewayOrderId}. */
+  public void markPaid(String gatewayOrderId) {
+    paid.put(gatewayOrderId, new GatewayOrderState(gatewayOrderId, "paid", "pay_stub_" + ids.incrementAndGet()));
+  }
+
+  private void pause() {
+    if (latencyMillis <= 0) return;
+    try {
+      Thread.sleep(latencyMillis);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
@@ -2,11 +2,9 @@ package com.ekrishihub.backend.service;
 
 import com.ekrishihub.backend.dto.TaskRequest;
 import com.ekrishihub.backend.dto.TaskResponse;
-import com.ekrishihub.backend.entity.AppUser;
 import com.ekrishihub.backend.entity.Task;
 import com.ekrishihub.backend.entity.TaskStatus;
 import com.ekrishihub.backend.repository.TaskRepository;
-import com.ekrishihub.backend.repository.UserRepository;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -23,13 +21,13 @@ import java.util.Set;
 public class TaskService {
 
   private final TaskRepository taskRepo;
-  private final UserRepository userRepo;
+  private final UserIdentityCache userIdentities;
 
   private static final Set<String> ALLOWED = Set.of("PENDING", "IN_PROGRESS", "COMPLETED");
 
-  public TaskService(TaskRepository taskRepo, UserRepository userRepo) {
+  public TaskService(TaskRepository taskRepo, UserIdentityCache userIdentities) {
     this.taskRepo = taskRepo;
-    this.userRepo = userRepo;
+    this.userIdentities = userIdentities;
   }
 
   /* ----------------------------- Create ----------------------------- */
@@ -143,8 +141,8 @@ public class TaskService {
   /* ------------------------------ Helpers --------------------------- */
 
   private Long findOwnerIdOr401(String email) {
-    return userRepo.findByEmailIgnoreCase(email)
-        .map(AppUser::getId)
+    return userIdentities.find(email)
+        .map(UserIdentityCache.Identity::id)
         .orElseThrow(() -> new ResponseStatusException(HttpStatus.UNAUTHORIZED, "User not found"));
   }
 
@@ -0,0 +1,91 @@
+// src/main/java/com/ekrishihub/backend/service/UserIdentityCache.java
+package com.ekrishihub.backend.service;
+
+import com.ekrishihub.backend.repository.UserRepository;
+import com.ekrishihub.backend.util.BoundedCache;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Email → (id, role, enabled), the lookup nearly every authenticated request
+ * starts with.
+ *
+ * Entries live for {@code ttl-seconds} at most, so a change made outside this
+ * process shows up within that window; changes made here (activation, profile
+ * update, registration) call {@link #invalidate} right away. Unknown emails
+ * are not cached. Counters are published as {@code user.cache.*} meters.
+ *
+ * The entries are spread over {@code stripes} independent caches by email
+ * hash, so concurrent requests for different users rarely wait on the same
+ * lock.
+ */
+@Component
+public class UserIdentityCache {
+
+  public record Identity(Long id, String email, String role, boolean enabled) {}
+
+  private final UserRepository userRepository;
+  private final List<BoundedCache<String, Identity>> stripes;
+
+  public UserIdentityCache(
+      UserRepository userRepository,
+      MeterRegistry meters,
+      @Value("${app.cache.users.max-size:10000}") int maxSize,
+      @Value("${app.cache.users.ttl-seconds:60}") long ttlSeconds,
+      @Value("${app.cache.users.stripes:16}") int stripeCount
+  ) {
+    this.userRepository = userRepository;
+    int n = Math.max(1, stripeCount);
+    int perStripe = Math.max(1, maxSize / n);
+    List<BoundedCache<String, Identity>> s = new ArrayList<>(n);
+    for (int i = 0; i < n; i++) {
+      s.add(new BoundedCache<>(perStripe, Duration.ofSeconds(ttlSeconds)));
+    }
+    this.stripes = List.copyOf(s);
+
+    FunctionCounter.builder("user.cache.hits", this, c -> c.sum(BoundedCache::hitCount)).register(meters);
+    FunctionCounter.builder("user.cache.misses", this, c -> c.sum(BoundedCache::missCount)).register(meters);
+    FunctionCounter.builder("user.cache.evictions", this, c -> c.sum(BoundedCache::evictionCount)).register(meters);
+    Gauge.builder("user.cache.size", this, c -> c.sum(BoundedCache::size)).register(meters);
+  }
+
+  /** Empty for a blank or unknown email. */
+  public Optional<Identity> find(String email) {
+    if (email == null || email.isBlank()) return Optional.empty();
+    String key = key(email);
+    return Optional.ofNullable(stripe(key).getOrLoad(key, e ->
+        userRepository.findIdentityByEmailIgnoreCase(e)
+            .map(u -> new Identity(u.getId(), u.getEmail(), u.getRole(), u.isEnabled()))
+            .orElse(null)));
+  }
+
+  /** The user behind {@code email} changed (or came into existence). */
+  public void invalidate(String email) {
+    if (email == null) return;
+    String key = key(email);
+    stripe(key).invalidate(key);
+  }
+
+  private BoundedCache<String, Identity> stripe(String key) {
+    return stripes.get(Math.floorMod(key.hashCode(), stripes.size()));
+  }
+
+  private double sum(ToDoubleFunction<BoundedCache<String, Identity>> metric) {
+    double total = 0;
+    for (BoundedCache<String, Identity> c : stripes) total += metric.applyAsDouble(c);
+    return total;
+  }
+
+  private static String key(String email) {
+    return email.trim().toLowerCase();
+  }
+}
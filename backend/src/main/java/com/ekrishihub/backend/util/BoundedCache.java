@@ -0,0 +1,123 @@
+package com.ekrishihub.backend.util;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Small LRU + TTL cache with hit/miss/eviction counters.
+ *
+ * Loads happen outside the lock; a load that raced with a write or an
+ * invalidation of the same key is returned to its caller but not stored, so
+ * a slow reader can never put a stale value back after a write. Writes to
+ * other keys do not affect it.
+ *
+ * Every operation is O(1) under the lock: a full cache evicts from the LRU
+ * end only, and expired entries elsewhere are dropped when they are next read.
+ */
+public class BoundedCache<K, V> {
+
+    private final int maxSize;
+    private final long ttlNanos;
+    private final LinkedHashMap<K, Entry<V>> map = new LinkedHashMap<>(16, 0.75f, true);
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    /** One ticket per key being loaded; a write to the key takes it away. */
+    private final Map<K, Object> loading = new HashMap<>();
+
+    public BoundedCache(int maxSize, Duration ttl) {
+        if (maxSize <= 0) throw new IllegalArgumentException("maxSize must be > 0");
+        this.maxSize = maxSize;
+        this.ttlNanos = ttl.toNanos();
+    }
+
+    public V get(K key) {
+        synchronized (this) {
+            Entry<V> e = map.get(key);
+            if (e != null && !isExpired(e, System.nanoTime())) {
+                hits.incrementAndGet();
+                return e.value;
+            }
+            if (e != null) {
+                map.remove(key);
+                evictions.incrementAndGet();
+            }
+        }
+        misses.incrementAndGet();
+        return null;
+    }
+
+    /** Returns the cached value or loads, caches and returns it. Null loads are not cached. */
+    public V getOrLoad(K key, Function<? super K, ? extends V> loader) {
+        V cached = get(key);
+        if (cached != null) return cached;
+
+        Object ticket = new Object();
+        synchronized (this) {
+            loading.put(key, ticket);
+        }
+        V loaded = null;
+        try {
+            loaded = loader.apply(key);
+        } finally {
+            synchronized (this) {
+                // Still ours only if nothing wrote the key and no later load took over
+                if (loading.remove(key, ticket) && loaded != null) putUnlocked(key, loaded);
+            }
+        }
+        return loaded;
+    }
+
+    public synchronized void put(K key, V value) {
+        if (value == null) {
+            invalidate(key);
+            return;
+        }
+        loading.remove(key);
+        putUnlocked(key, value);
+    }
+
+    public synchronized void invalidate(K key) {
+        loading.remove(key);
+        map.remove(key);
+    }
+
+    public synchronized void invalidateAll() {
+        loading.clear();
+        map.clear();
+    }
+
+    public synchronized int size() {
+        return map.size();
+    }
+
+    public long hitCount() { return hits.get(); }
+    public long missCount() { return misses.get(); }
+    public long evictionCount() { return evictions.get(); }
+
+    /* ---------------------------- internals ---------------------------- */
+
+    private void putUnlocked(K key, V value) {
+        long now = System.nanoTime();
+        map.put(key, new Entry<>(value, now));
+        // The head is the least recently used entry, expired or not
+        Iterator<Map.Entry<K, Entry<V>>> it = map.entrySet().iterator();
+        while (map.size() > maxSize && it.hasNext()) {
+            it.next();
+            it.remove();
+            evictions.incrementAndGet();
+        }
+    }
+
+    private boolean isExpired(Entry<V> e, long now) {
+        return now - e.writtenAt > ttlNanos;
+    }
+
+    private record Entry<V>(V value, long writtenAt) {}
+}
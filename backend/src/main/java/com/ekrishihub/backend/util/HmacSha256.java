@@ -0,0 +1,57 @@
+package com.ekrishihub.backend.util;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+
+/**
+ * HMAC-SHA256 under one fixed key.
+ *
+ * {@code Mac} is not thread-safe and costly to look up and initialise, so each
+ * thread keeps its own initialised instance; {@code doFinal} resets it for the
+ * next use.
+ */
+public class HmacSha256 {
+
+    private static final HexFormat HEX = HexFormat.of();
+
+    private final ThreadLocal<Mac> mac;
+
+    public HmacSha256(String secret) {
+        if (secret == null || secret.isEmpty()) throw new IllegalArgumentException("secret is required");
+        SecretKeySpec key = new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256");
+        this.mac = ThreadLocal.withInitial(() -> {
+            try {
+                Mac m = Mac.getInstance("HmacSHA256");
+                m.init(key);
+                return m;
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+    }
+
+    public byte[] sign(byte[] data) {
+        return mac.get().doFinal(data);
+    }
+
+    /** Lower-case hex signature of the UTF-8 bytes of {@code data}. */
+    public String hex(String data) {
+        return HEX.formatHex(sign(data.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    /** Constant-time check of a hex signature (either case) over raw bytes. */
+    public boolean matches(byte[] data, String hexSignature) {
+        if (hexSignature == null) return false;
+        byte[] expected;
+        try {
+            expected = HEX.parseHex(hexSignature.trim().toLowerCase());
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+        return MessageDigest.isEqual(sign(data), expected);
+    }
+}
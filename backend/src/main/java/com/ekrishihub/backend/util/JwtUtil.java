@@ -1,40 +1,85 @@
 package com.ekrishihub.backend.util;
 
+import com.ekrishihub.backend.entity.AppUser;
 import io.jsonwebtoken.*;
+import io.jsonwebtoken.io.Decoders;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import javax.crypto.spec.SecretKeySpec;
+import java.security.Key;
 import java.util.Date;
 
+/**
+ * Issues and verifies the API's bearer tokens.
+ *
+ * The signing key and parser are built once (the parser is immutable and
+ * thread-safe), and {@link #parse} verifies a token in a single pass. Tokens
+ * carry the user's id, role and enabled flag next to the email subject, so a
+ * request can be authenticated from the token alone.
+ */
 @Component
 public class JwtUtil {
 
+    public static final String CLAIM_ROLE = "role";
+    public static final String CLAIM_UID = "uid";
+    public static final String CLAIM_ENABLED = "enabled";
+
     @Value("${jwt.secret}")
     private String jwtSecret;
 
     @Value("${jwt.expirationMs}")
     private Long jwtExpirationMs;
 
-    public String generateToken(String email, String role) {
+    private Key key;
+    private JwtParser parser;
+
+    /** What a verified token says about its bearer; uid/enabled are null in tokens issued before they existed. */
+    public record TokenClaims(String email, String role, Long userId, Boolean enabled, Date issuedAt) {}
+
+    @PostConstruct
+    void init() {
+        // Same key material as before: the secret is Base64, as jjwt's String-key overloads assumed
+        this.key = new SecretKeySpec(Decoders.BASE64.decode(jwtSecret), SignatureAlgorithm.HS256.getJcaName());
+        this.parser = Jwts.parserBuilder().setSigningKey(key).build();
+    }
+
+    public String generateToken(AppUser user) {
         return Jwts.builder()
-                .setSubject(email)
-                .claim("role", role)
+                .setSubject(user.getEmail())
+                .claim(CLAIM_ROLE, user.getRole())
+                .claim(CLAIM_UID, user.getId())
+                .claim(CLAIM_ENABLED, user.isEnabled())
                 .setIssuedAt(new Date())
                 .setExpiration(new Date(System.currentTimeMillis() + jwtExpirationMs))
-                .signWith(SignatureAlgorithm.HS256, jwtSecret)
+                .signWith(key, SignatureAlgorithm.HS256)
                 .compact();
     }
 
+    /** Verifies signature and expiry once; null when the token is not valid. */
+    public TokenClaims parse(String token) {
+        try {
+            Claims c = parser.parseClaimsJws(token).getBody();
+            if (c.getSubject() == null) return null;
+            Number uid = c.get(CLAIM_UID, Number.class);
+            return new TokenClaims(
+                    c.getSubject(),
+                    c.get(CLAIM_ROLE, String.class),
+                    uid == null ? null : uid.longValue(),
+                    c.get(CLAIM_ENABLED, Boolean.class),
+                    c.getIssuedAt());
+        } catch (JwtException | IllegalArgumentException ex) {
+            return null;
+        }
+    }
+
     public String getEmailFromToken(String token) {
-        return Jwts.parser().setSigningKey(jwtSecret).parseClaimsJws(token).getBody().getSubject();
+        TokenClaims claims = parse(token);
+        return claims == null ? null : claims.email();
     }
 
     public boolean validateToken(String token) {
-        try {
-            Jwts.parser().setSigningKey(jwtSecret).parseClaimsJws(token);
-            return true;
-        } catch (JwtException | IllegalArgumentException ex) {
-            return false;
-        }
+        return parse(token) != null;
     }
 }
@@ -0,0 +1,72 @@
+package com.ekrishihub.backend.util;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hashed timing wheel for expiry deadlines.
+ *
+ * A key goes into the slot of its deadline's tick; {@link #advance} only
+ * looks at the slots of ticks that have passed since the last call, so
+ * expiring costs the number of due keys plus a few stale ones, never a scan
+ * of everything scheduled. Deadlines more than one rotation away stay in
+ * their slot until their round comes up. Keys come out at most one tick
+ * late. Rescheduling a key does not remove its earlier deadline; the caller
+ * checks an expired key against its own state.
+ */
+public class TimingWheel<K> {
+
+    private final long tickMillis;
+    private final List<Map<K, Long>> slots;
+    private final int mask;
+    private long lastTick;
+
+    /** {@code slotCount} is rounded up to a power of two. */
+    public TimingWheel(Duration tick, int slotCount, long nowMillis) {
+        if (tick.toMillis() <= 0) throw new IllegalArgumentException("tick must be >= 1ms");
+        int n = Integer.highestOneBit(Math.max(2, slotCount - 1)) << 1;
+        this.tickMillis = tick.toMillis();
+        this.slots = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) slots.add(new HashMap<>());
+        this.mask = n - 1;
+        this.lastTick = nowMillis / tickMillis - 1;
+    }
+
+    public synchronized void schedule(K key, long deadlineMillis) {
+        // A deadline in a tick already swept goes into the next one to be swept
+        long tick = Math.max(deadlineMillis / tickMillis, lastTick + 1);
+        slots.get((int) (tick & mask)).put(key, deadlineMillis);
+    }
+
+    /** Removes and returns the keys whose deadline tick has fully passed by {@code nowMillis}. */
+    public synchronized List<K> advance(long nowMillis) {
+        long until = nowMillis / tickMillis - 1;
+        if (until <= lastTick) return List.of();
+        // After a stall longer than one rotation, one pass over every slot is enough
+        long from = Math.max(lastTick + 1, until - mask);
+
+        List<K> due = new ArrayList<>();
+        for (long t = from; t <= until; t++) {
+            Iterator<Map.Entry<K, Long>> it = slots.get((int) (t & mask)).entrySet().iterator();
+            while (it.hasNext()) {
+                Map.Entry<K, Long> e = it.next();
+                if (e.getValue() / tickMillis <= t) {
+                    due.add(e.getKey());
+                    it.remove();
+                }
+            }
+        }
+        lastTick = until;
+        return due;
+    }
+
+    public synchronized int size() {
+        int n = 0;
+        for (Map<K, Long> s : slots) n += s.size();
+        return n;
+    }
+}
@@ -0,0 +1,128 @@
+package com.ekrishihub.backend.service;
+
+import com.ekrishihub.backend.entity.Product;
+import com.ekrishihub.backend.repository.ProductRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest
+@Import(InventoryService.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)   // every reserve commits on its own, like real requests
+class InventoryServiceTests {
+
+	private static final int THREADS = 32;
+	private static final int ATTEMPTS_PER_THREAD = 50;
+
+	@Autowired
+	private InventoryService inventoryService;
+
+	@Autowired
+	private ProductRepository productRepository;
+
+	@MockitoBean
+	private ProductService productService;
+
+	@AfterEach
+	void cleanUp() {
+		productRepository.deleteAll();
+	}
+
+	@Test
+	void concurrentReservationsNeverOversell() throws Exception {
+		int stock = 500;
+		Long productId = productRepository.save(new Product(null, "Tomato", "Vegetables", null, 20.0, stock, 1L)).getId();
+
+		AtomicInteger reservedUnits = new AtomicInteger();
+		AtomicInteger rejected = new AtomicInteger();
+		CountDownLatch start = new CountDownLatch(1);
+		ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+		List<Future<?>> futures = new ArrayList<>();
+		for (int t = 0; t < THREADS; t++) {
+			int qty = 1 + t % 3;
+			futures.add(pool.submit(() -> {
+				start.await();
+				for (int i = 0; i < ATTEMPTS_PER_THREAD; i++) {
+					try {
+						inventoryService.reserve(productId, qty);
+						reservedUnits.addAndGet(qty);
+					} catch (ResponseStatusException ex) {
+						assertEquals(HttpStatus.CONFLICT, ex.getStatusCode());
+						rejected.incrementAndGet();
+					}
+				}
+				return null;
+			}));
+		}
+		start.countDown();
+		for (Future<?> f : futures) {
+			f.get(60, TimeUnit.SECONDS);
+		}
+		pool.shutdown();
+
+		int left = productRepository.findById(productId).orElseThrow().getQuantity();
+		assertTrue(left >= 0, "stock went negative: " + left);
+		assertEquals(stock, reservedUnits.get() + left, "reserved units must match the stock taken");
+		assertTrue(rejected.get() > 0, "demand exceeded supply, some reservations must be refused");
+		assertTrue(left < 3, "stock left over while buyers were refused: " + left);
+	}
+
+	@Test
+	void releaseReturnsStockAndAdjustMovesTheDifference() {
+		Long productId = productRepository.save(new Product(null, "Onion", "Vegetables", null, 30.0, 10, 1L)).getId();
+
+		inventoryService.reserve(productId, 4);
+		inventoryService.adjust(productId, 4, 10);
+		assertEquals(0, productRepository.findById(productId).orElseThrow().getQuantity());
+
+		ResponseStatusException ex = assertThrows(ResponseStatusException.class,
+				() -> inventoryService.reserve(productId, 1));
+		assertEquals(HttpStatus.CONFLICT, ex.getStatusCode());
+
+		inventoryService.adjust(productId, 10, 7);
+		inventoryService.release(productId, 7);
+		assertEquals(10, productRepository.findById(productId).orElseThrow().getQuantity());
+	}
+
+	@Test
+	void restockKeepsReservationsMadeSinceTheRead() {
+		Long productId = productRepository.save(new Product(null, "Garlic", "Vegetables", null, 50.0, 10, 1L)).getId();
+		int read = productRepository.findById(productId).orElseThrow().getQuantity();
+
+		inventoryService.reserve(productId, 3);           // an order lands while the farmer edits
+		inventoryService.restock(productId, read, 15);
+		assertEquals(12, productRepository.findById(productId).orElseThrow().getQuantity());
+
+		ResponseStatusException ex = assertThrows(ResponseStatusException.class,
+				() -> inventoryService.restock(productId, 20, 0));
+		assertEquals(HttpStatus.CONFLICT, ex.getStatusCode());
+		assertEquals(12, productRepository.findById(productId).orElseThrow().getQuantity());
+	}
+
+	@Test
+	void reservingUnknownProductIsNotFound() {
+		ResponseStatusException ex = assertThrows(ResponseStatusException.class,
+				() -> inventoryService.reserve(999_999L, 1));
+		assertEquals(HttpStatus.NOT_FOUND, ex.getStatusCode());
+	}
+}
@@ -0,0 +1,233 @@
+package com.ekrishihub.backend.service;
+
+import com.ekrishihub.backend.entity.OutboundMail;
+import com.ekrishihub.backend.repository.OutboundMailRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest(properties = {
+		"app.mail.from=noreply@test",
+		"app.mail.outbox.workers=0",             // the tests drive sendBatch themselves
+		"app.mail.outbox.batch-size=10",
+		"app.mail.outbox.max-attempts=3",
+		"app.mail.outbox.retry-base-seconds=60",
+		"app.mail.outbox.retry-max-seconds=600",
+		"app.mail.outbox.lease-seconds=120"
+})
+@Import({MailOutboxService.class, MailOutboxServiceTests.Config.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)   // every step commits on its own, like the workers
+class MailOutboxServiceTests {
+
+	@Autowired
+	private MailOutboxService outbox;
+
+	@Autowired
+	private OutboundMailRepository repository;
+
+	@Autowired
+	private FlakyMailSender mailSender;
+
+	@AfterEach
+	void cleanUp() {
+		repository.deleteAll();
+		mailSender.clear();
+		mailSender.failing.clear();
+		mailSender.down = false;
+		mailSender.calls = 0;
+	}
+
+	@Test
+	void sendsDueMailInOneBatchAndDeletesIt() {
+		outbox.enqueue("a@test", "Hi", "one");
+		outbox.enqueue("b@test", "Hi", "two");
+		outbox.enqueue("c@test", "Hi", "three");
+
+		assertEquals(3, outbox.sendBatch());
+
+		assertEquals(1, mailSender.calls);
+		assertEquals(List.of("a@test", "b@test", "c@test"), recipients(mailSender.sent()));
+		assertEquals(0, repository.count());
+	}
+
+	@Test
+	void partialFailureRetriesOnlyTheFailedMessageWithBackoff() {
+		outbox.enqueue("ok@test", "Hi", "fine");
+		outbox.enqueue("bad@test", "Hi", "bounces");
+		mailSender.failing.add("bad@test");
+
+		LocalDateTime before = LocalDateTime.now();
+		assertEquals(2, outbox.sendBatch());
+
+		assertEquals(List.of("ok@test"), recipients(mailSender.sent()));
+		List<OutboundMail> left = repository.findAll();
+		assertEquals(1, left.size());
+		OutboundMail bad = left.get(0);
+		assertEquals("bad@test", bad.getRecipient());
+		assertEquals(MailOutboxService.PENDING, bad.getStatus());
+		assertEquals(1, bad.getAttempts());
+		assertNull(bad.getClaimToken());
+		assertTrue(bad.getLastError().contains("bad@test"));
+		// base 60s plus at most 20% jitter
+		assertTrue(!bad.getNextAttemptAt().isBefore(before.plusSeconds(60)));
+		assertTrue(bad.getNextAttemptAt().isBefore(LocalDateTime.now().plusSeconds(73)));
+
+		// Not due yet: nothing is taken
+		assertEquals(0, outbox.sendBatch());
+	}
+
+	@Test
+	void retryDelayDoublesPerAttempt() {
+		outbox.enqueue("a@test", "Hi", "body");
+		mailSender.down = true;
+
+		outbox.sendBatch();
+		makeDue();
+		LocalDateTime before = LocalDateTime.now();
+		outbox.sendBatch();
+
+		OutboundMail m = repository.findAll().get(0);
+		assertEquals(2, m.getAttempts());
+		assertTrue(!m.getNextAttemptAt().isBefore(before.plusSeconds(120)));
+		assertTrue(m.getNextAttemptAt().isBefore(LocalDateTime.now().plusSeconds(145)));
+	}
+
+	@Test
+	void givesUpAfterMaxAttemptsAndClearsTheBody() {
+		outbox.enqueue("a@test", "Hi", "secret code");
+		mailSender.down = true;
+
+		for (int i = 0; i < 3; i++) {
+			assertEquals(1, outbox.sendBatch());
+			makeDue();
+		}
+
+		OutboundMail m = repository.findAll().get(0);
+		assertEquals(MailOutboxService.DEAD, m.getStatus());
+		assertEquals(3, m.getAttempts());
+		assertEquals("", m.getBody());
+		// Dead rows are never picked up again
+		mailSender.down = false;
+		assertEquals(0, outbox.sendBatch());
+		assertTrue(mailSender.sent().isEmpty());
+	}
+
+	@Test
+	void leasedMailIsSkippedUntilTheLeaseRunsOut() {
+		outbox.enqueue("a@test", "Hi", "body");
+		Long id = repository.findAll().get(0).getId();
+		LocalDateTime now = LocalDateTime.now();
+
+		// Another worker holds it
+		assertEquals(1, repository.claim(List.of(id), "other-worker", now, now.plusMinutes(2)));
+		assertEquals(0, outbox.sendBatch());
+		assertTrue(mailSender.sent().isEmpty());
+
+		// That worker died; once its lease is over the mail goes out
+		repository.markFailed(id, MailOutboxService.PENDING, LocalDateTime.now().minusSeconds(1), "lease lapsed");
+		assertEquals(1, outbox.sendBatch());
+		assertEquals(List.of("a@test"), recipients(mailSender.sent()));
+		assertEquals(0, repository.count());
+	}
+
+	@Test
+	void expiredMailIsNeverSentAndIsPurged() {
+		outbox.enqueue("otp@test", "Code", "123456", Duration.ofMillis(1));
+		sleep(20);
+
+		assertEquals(0, outbox.sendBatch());
+		outbox.purgeExpired();
+
+		assertTrue(mailSender.sent().isEmpty());
+		assertEquals(0, repository.count());
+	}
+
+	/* ----------------------------- helpers ---------------------------- */
+
+	private void makeDue() {
+		for (OutboundMail m : repository.findAll()) {
+			m.setNextAttemptAt(LocalDateTime.now().minusSeconds(1));
+			repository.save(m);
+		}
+	}
+
+	private static List<String> recipients(List<SimpleMailMessage> messages) {
+		List<String> out = new ArrayList<>();
+		for (SimpleMailMessage m : messages) out.add(m.getTo()[0]);
+		return out;
+	}
+
+	private static void sleep(long millis) {
+		try {
+			Thread.sleep(millis);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/** FakeMailSender that can refuse chosen recipients, or the whole connection. */
+	static class FlakyMailSender extends FakeMailSender {
+
+		final Set<String> failing = new HashSet<>();
+		volatile boolean down;
+		int calls;
+
+		FlakyMailSender() {
+			super(0, 1000);
+		}
+
+		@Override
+		public void send(SimpleMailMessage... messages) {
+			calls++;
+			if (down) throw new MailSendException("Connection refused");
+			Map<Object, Exception> failed = new LinkedHashMap<>();
+			List<SimpleMailMessage> ok = new ArrayList<>();
+			for (SimpleMailMessage m : messages) {
+				if (failing.contains(m.getTo()[0])) {
+					failed.put(m, new MailSendException("550 mailbox unavailable: " + m.getTo()[0]));
+				} else {
+					ok.add(m);
+				}
+			}
+			super.send(ok.toArray(new SimpleMailMessage[0]));
+			if (!failed.isEmpty()) throw new MailSendException(failed);
+		}
+	}
+
+	@TestConfiguration
+	static class Config {
+
+		@Bean
+		MeterRegistry meterRegistry() {
+			return new SimpleMeterRegistry();
+		}
+
+		@Bean
+		FlakyMailSender flakyMailSender() {
+			return new FlakyMailSender();
+		}
+	}
+}
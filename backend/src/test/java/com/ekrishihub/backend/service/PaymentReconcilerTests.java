@@ -0,0 +1,165 @@
+package com.ekrishihub.backend.service;
+
+import com.ekrishihub.backend.entity.Order;
+import com.ekrishihub.backend.repository.OrderRepository;
+import com.ekrishihub.backend.service.OrderService.GatewayStatus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.atLeast;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+@DataJpaTest(properties = {
+		"app.payment.gateway=stub",
+		"app.payment.reconcile.older-than-minutes=15",
+		"app.payment.reconcile.abandon-after-minutes=1440",
+		"app.payment.reconcile.batch-size=2",      // several pages, so bundles can span them
+		"app.payment.reconcile.concurrency=2"
+})
+@Import({PaymentReconciler.class, StubPaymentGateway.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class PaymentReconcilerTests {
+
+	@Autowired
+	private PaymentReconciler reconciler;
+
+	@Autowired
+	private StubPaymentGateway gateway;
+
+	@Autowired
+	private OrderRepository orderRepository;
+
+	@MockitoBean
+	private OrderService orderService;
+
+	@AfterEach
+	void cleanUp() {
+		orderRepository.deleteAll();
+		clearInvocations(orderService);
+	}
+
+	@Test
+	void paidGatewayOrdersBecomePaid() {
+		String gw = gateway.createOrder(1000, "INR", "r1").id();
+		save(gw, hoursAgo(1), null);
+		gateway.markPaid(gw);
+
+		GatewayStatus update = applied().get(gw);
+		assertEquals("PAID", update.status());
+		assertEquals(gateway.fetchOrderState(gw).paymentId(), update.paymentId());
+	}
+
+	@Test
+	void unpaidOrdersFailOnlyOnceAbandoned() {
+		String old = gateway.createOrder(1000, "INR", "r1").id();
+		String recent = gateway.createOrder(1000, "INR", "r2").id();
+		String fresh = gateway.createOrder(1000, "INR", "r3").id();
+		save(old, hoursAgo(30), null);
+		save(recent, hoursAgo(2), null);
+		save(fresh, LocalDateTime.now().minusMinutes(1), null);
+
+		Map<String, GatewayStatus> updates = applied();
+		assertEquals("FAILED", updates.get(old).status());
+		assertNull(updates.get(old).paymentId());
+		assertFalse(updates.containsKey(recent));
+		assertFalse(updates.containsKey(fresh));
+	}
+
+	@Test
+	void abandonmentCountsFromTheLastHandOutNotTheOrder() {
+		// Placed long ago, but the customer reopened checkout two hours ago
+		String reopened = gateway.createOrder(1000, "INR", "r1").id();
+		save(reopened, hoursAgo(72), hoursAgo(2));
+		// Placed long ago and last handed out long ago too
+		String idle = gateway.createOrder(1000, "INR", "r2").id();
+		save(idle, hoursAgo(72), hoursAgo(48));
+
+		Map<String, GatewayStatus> updates = applied();
+		assertFalse(updates.containsKey(reopened));
+		assertEquals("FAILED", updates.get(idle).status());
+	}
+
+	@Test
+	void bundleIsAskedOnceAndAbandonedOnlyWhenAllOfItIsIdle() {
+		String idleBundle = gateway.createOrder(3000, "INR", "b1").id();
+		save(idleBundle, hoursAgo(40), null);
+		save(idleBundle, hoursAgo(35), null);
+		save(idleBundle, hoursAgo(30), null);
+		String activeBundle = gateway.createOrder(2000, "INR", "b2").id();
+		save(activeBundle, hoursAgo(40), null);
+		save(activeBundle, hoursAgo(3), null);
+
+		List<GatewayStatus> all = allApplied();
+		assertEquals(1, all.stream().filter(u -> u.razorpayOrderId().equals(idleBundle)).count());
+		assertFalse(all.stream().anyMatch(u -> u.razorpayOrderId().equals(activeBundle)));
+	}
+
+	@Test
+	void settledAndUnattachedOrdersAreLeftAlone() {
+		String paid = gateway.createOrder(1000, "INR", "r1").id();
+		Order o = save(paid, hoursAgo(30), null);
+		o.setPaymentStatus("PAID");
+		orderRepository.save(o);
+		save(null, hoursAgo(30), null);
+
+		assertEquals(0, reconciler.reconcile());
+		verify(orderService, never()).applyGatewayStatuses(any());
+	}
+
+	/* ----------------------------- helpers ---------------------------- */
+
+	private Order save(String gatewayOrderId, LocalDateTime createdAt, LocalDateTime paymentStartedAt) {
+		Order o = Order.builder()
+				.customerId(1L)
+				.productId(1L)
+				.quantity(1)
+				.totalAmount(10.0)
+				.paymentStatus("PENDING")
+				.razorpayOrderId(gatewayOrderId)
+				.paymentStartedAt(paymentStartedAt)
+				.createdAt(createdAt)
+				.build();
+		return orderRepository.save(o);
+	}
+
+	private static LocalDateTime hoursAgo(long hours) {
+		return LocalDateTime.now().minusHours(hours);
+	}
+
+	private Map<String, GatewayStatus> applied() {
+		Map<String, GatewayStatus> byId = new HashMap<>();
+		for (GatewayStatus u : allApplied()) byId.put(u.razorpayOrderId(), u);
+		return byId;
+	}
+
+	/** Every update the reconciler handed to OrderService in one run. */
+	@SuppressWarnings("unchecked")
+	private List<GatewayStatus> allApplied() {
+		reconciler.reconcile();
+		ArgumentCaptor<Collection<GatewayStatus>> batches = ArgumentCaptor.forClass(Collection.class);
+		verify(orderService, atLeast(0)).applyGatewayStatuses(batches.capture());
+		List<GatewayStatus> all = new ArrayList<>();
+		batches.getAllValues().forEach(all::addAll);
+		return all;
+	}
+}
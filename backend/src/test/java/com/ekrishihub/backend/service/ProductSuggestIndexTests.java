@@ -0,0 +1,113 @@
+package com.ekrishihub.backend.service;
+
+import com.ekrishihub.backend.dto.ProductResponse;
+import com.ekrishihub.backend.dto.ProductSuggestion;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ProductSuggestIndexTests {
+
+	private static final List<String> PREFIXES = List.of("t", "to", "tomato 1", "o", "on", "r", "red", "v", "veg", "f");
+
+	@Test
+	void ranksByStockAndFindsLaterWords() {
+		ProductSuggestIndex index = new ProductSuggestIndex();
+		index.rebuild(List.of(
+				product(1, "Red Onion", "Vegetables", 10),
+				product(2, "Onion", "Vegetables", 30),
+				product(3, "Orange", "Fruits", 20)));
+
+		assertEquals(List.of("onion|product|1|30", "orange|product|1|20", "red onion|product|1|10"),
+				rows(index.suggest("o", 10)));
+		assertEquals(List.of("vegetables|category|2|40"), rows(index.suggest("veg", 10)));
+		assertEquals(List.of("onion|product|1|30"), rows(index.suggest("o", 1)));
+	}
+
+	@Test
+	void cachedListIsPatchedOnStockChangesAndRemoves() {
+		ProductSuggestIndex index = new ProductSuggestIndex();
+		index.rebuild(List.of(
+				product(1, "Tomato", "Vegetables", 10),
+				product(2, "Turnip", "Vegetables", 20)));
+		assertEquals(List.of("turnip|product|1|20", "tomato|product|1|10"), rows(index.suggest("t", 10)));
+
+		index.upsert(product(1, "Tomato", "Vegetables", 50));
+		assertEquals(List.of("tomato|product|1|50", "turnip|product|1|20"), rows(index.suggest("t", 10)));
+
+		index.upsert(product(3, "Tomato", "Vegetables", 5));
+		assertEquals(List.of("tomato|product|2|55", "turnip|product|1|20"), rows(index.suggest("t", 10)));
+
+		index.remove(1L);
+		assertEquals(List.of("turnip|product|1|20", "tomato|product|1|5"), rows(index.suggest("t", 10)));
+
+		index.remove(3L);
+		assertEquals(List.of("turnip|product|1|20"), rows(index.suggest("t", 10)));
+
+		index.upsert(product(2, "Beetroot", "Vegetables", 20));
+		assertEquals(List.of(), rows(index.suggest("t", 10)));
+	}
+
+	/**
+	 * Random writes against an index whose prefixes stay cached (and so are
+	 * patched in place) must always answer like an index built from scratch,
+	 * including for prefixes with more labels than a cached list keeps.
+	 */
+	@Test
+	void patchedListsMatchAFreshBuild() {
+		Random random = new Random(42);
+		List<String> names = new ArrayList<>();
+		for (int i = 1; i <= 60; i++) names.add("Tomato " + i);
+		names.addAll(List.of("Red Onion", "Onion", "Orange", "Turnip", "Radish", "Red Chilli", "Fig"));
+		List<String> categories = List.of("Vegetables", "Fruits", "Vegetable Seeds", "Roots");
+
+		Map<Long, ProductResponse> catalog = new HashMap<>();
+		ProductSuggestIndex patched = new ProductSuggestIndex();
+		for (String p : PREFIXES) patched.suggest(p, ProductSuggestIndex.MAX_LIMIT);
+
+		for (int step = 0; step < 3000; step++) {
+			long id = 1 + random.nextInt(120);
+			if (random.nextInt(4) == 0) {
+				catalog.remove(id);
+				patched.remove(id);
+			} else {
+				ProductResponse p = product(id, names.get(random.nextInt(names.size())),
+						categories.get(random.nextInt(categories.size())), random.nextInt(100));
+				catalog.put(id, p);
+				patched.upsert(p);
+			}
+
+			if (step % 25 == 0) {
+				ProductSuggestIndex fresh = new ProductSuggestIndex();
+				fresh.rebuild(catalog.values());
+				for (String p : PREFIXES) {
+					assertEquals(rows(fresh.suggest(p, ProductSuggestIndex.MAX_LIMIT)),
+							rows(patched.suggest(p, ProductSuggestIndex.MAX_LIMIT)),
+							"prefix '" + p + "' after step " + step);
+				}
+			}
+		}
+	}
+
+	/* ----------------------------- helpers ---------------------------- */
+
+	private static ProductResponse product(long id, String name, String category, int quantity) {
+		return new ProductResponse(id, name, null, category, 10.0, quantity, 1L);
+	}
+
+	/** Display spelling depends on which listing came first, so compare lower-cased. */
+	private static List<String> rows(List<ProductSuggestion> suggestions) {
+		List<String> out = new ArrayList<>();
+		for (ProductSuggestion s : suggestions) {
+			out.add(s.getText().toLowerCase(Locale.ROOT) + "|" + s.getType() + "|" + s.getListings() + "|" + s.getStock());
+		}
+		return out;
+	}
+}
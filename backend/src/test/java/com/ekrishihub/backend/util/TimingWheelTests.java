@@ -0,0 +1,71 @@
+package com.ekrishihub.backend.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class TimingWheelTests {
+
+	@Test
+	void keyComesOutOnceItsDeadlineTickHasPassed() {
+		TimingWheel<String> wheel = new TimingWheel<>(Duration.ofMillis(100), 8, 0);
+		wheel.schedule("a", 250);
+
+		assertEquals(List.of(), wheel.advance(250));
+		assertEquals(List.of(), wheel.advance(299));
+		assertEquals(List.of("a"), wheel.advance(300));
+		assertEquals(0, wheel.size());
+		assertEquals(List.of(), wheel.advance(400));
+	}
+
+	@Test
+	void deadlineBeyondOneRotationWaitsForItsRound() {
+		TimingWheel<String> wheel = new TimingWheel<>(Duration.ofMillis(100), 4, 0);
+		wheel.schedule("far", 1_050);    // same slot as tick 2, two rotations later
+
+		assertEquals(List.of(), wheel.advance(300));
+		assertEquals(List.of(), wheel.advance(700));
+		assertEquals(List.of(), wheel.advance(1_099));
+		assertEquals(1, wheel.size());
+		assertEquals(List.of("far"), wheel.advance(1_100));
+	}
+
+	@Test
+	void deadlineAlreadySweptGoesOutOnTheNextAdvance() {
+		TimingWheel<String> wheel = new TimingWheel<>(Duration.ofMillis(100), 8, 0);
+		wheel.advance(500);
+		wheel.schedule("late", 100);
+
+		assertEquals(List.of("late"), wheel.advance(600));
+	}
+
+	@Test
+	void stallLongerThanARotationReleasesEverythingDue() {
+		TimingWheel<Integer> wheel = new TimingWheel<>(Duration.ofMillis(10), 16, 0);
+		Set<Integer> expected = new HashSet<>();
+		for (int i = 0; i < 100; i++) {
+			wheel.schedule(i, 5 + i * 7L);
+			expected.add(i);
+		}
+		wheel.schedule(1_000, 50_000);
+
+		assertEquals(expected, new HashSet<>(wheel.advance(10_000)));
+		assertEquals(1, wheel.size());
+		assertEquals(List.of(1_000), wheel.advance(50_010));
+	}
+
+	@Test
+	void rescheduleIntoTheSameSlotKeepsTheLaterDeadline() {
+		TimingWheel<String> wheel = new TimingWheel<>(Duration.ofMillis(100), 4, 0);
+		wheel.schedule("k", 150);
+		wheel.schedule("k", 550);        // same slot, one rotation later
+
+		assertEquals(List.of(), wheel.advance(200));
+		assertEquals(List.of("k"), wheel.advance(600));
+	}
+}
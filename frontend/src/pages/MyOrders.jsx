@@ -123,31 +123,23 @@ export default function MyOrders() {
         order_id: data.razorpayOrderId,
         theme: { color: '#16a34a' },
         handler: async (rzp) => {
+          // The server confirms the payment with the gateway before marking anything paid
           await axios.post('/orders/payment/update-bundle', {
             orderIds,
             paymentId: rzp?.razorpay_payment_id,
-            status: 'PAID',
           });
           toast.success('Payment successful!');
           fetchOrders();
         },
         modal: {
-          ondismiss: async () => {
-            try {
-              await axios.post('/orders/payment/update-bundle', { orderIds, paymentId: '', status: 'FAILED' });
-              fetchOrders();
-            } catch {}
-          },
+          ondismiss: () => fetchOrders(),
         },
       };
 
       const rzp = new window.Razorpay(options);
-      rzp.on('payment.failed', async () => {
+      // A declined attempt leaves the orders open, so the customer can simply try again
+      rzp.on('payment.failed', () => {
         toast.error('Payment failed.');
-        try {
-          await axios.post('/orders/payment/update-bundle', { orderIds, paymentId: '', status: 'FAILED' });
-          fetchOrders();
-        } catch {}
       });
       rzp.open();
     } catch (e) {